@@ -0,0 +1,51 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+
+import java.lang.reflect.Field;
+import java.net.http.WebSocket;
+
+/**
+ * Shared setup for the benchmarks: an in-memory config and a way to plug a fake socket into Denorite.
+ */
+final class BenchmarkFixtures {
+    static final String PLAYER_ID = "069a79f4-44e9-4726-a5be-fca90e38aaf5";
+    static final String PLAYER_NAME = "Notch";
+    static final String ENTITY_ID = "3f1c2a6e-9d0b-4c55-8a7e-2b4d6f8e1a90";
+    static final String DIMENSION = "minecraft:overworld";
+
+    private static boolean outboundStarted;
+
+    private BenchmarkFixtures() {
+    }
+
+    static DenoriteConfig config() {
+        JsonObject config = new JsonObject();
+        config.addProperty("jwtToken", "");
+        config.addProperty("serverUrl", "ws://localhost:8082");
+        config.addProperty("mcServerUrl", "mc");
+        config.addProperty("strictMode", false);
+        return new DenoriteConfig(config);
+    }
+
+    /**
+     * Starts the outbound writer once per fork and makes Denorite send to the given socket.
+     */
+    static synchronized void connect(WebSocket socket) throws ReflectiveOperationException {
+        if (!outboundStarted) {
+            OutboundQueue.initialize(config());
+            outboundStarted = true;
+        }
+        setWebSocket(socket);
+    }
+
+    static void disconnect() throws ReflectiveOperationException {
+        setWebSocket(null);
+    }
+
+    private static void setWebSocket(WebSocket socket) throws ReflectiveOperationException {
+        Field field = Denorite.class.getDeclaredField("webSocket");
+        field.setAccessible(true);
+        field.set(null, socket);
+    }
+}
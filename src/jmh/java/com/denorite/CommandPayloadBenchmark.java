@@ -0,0 +1,53 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.denorite.BenchmarkFixtures.*;
+
+/**
+ * The custom_command_executed payload built by {@code DynamicCommandHandler.executeCommand},
+ * with argument values served from a map instead of a Brigadier context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CommandPayloadBenchmark {
+    private JsonObject commandData;
+    private Map<String, Object> arguments;
+
+    @Setup
+    public void setUp() {
+        commandData = JsonParser.parseString("{\"name\":\"pay\",\"arguments\":["
+                + "{\"name\":\"target\",\"type\":\"player\"},"
+                + "{\"name\":\"amount\",\"type\":\"integer\"},"
+                + "{\"name\":\"item\",\"type\":\"item\"},"
+                + "{\"name\":\"note\",\"type\":\"text\",\"optional\":true}]}").getAsJsonObject();
+        arguments = Map.of(
+                "target", "jeb_",
+                "amount", 250,
+                "item", "item.minecraft.emerald",
+                "note", "for the villager trading hall");
+    }
+
+    @Benchmark
+    public Object buildExecutionData() {
+        return DynamicCommandHandler.buildExecutionData(commandData, "pay", null, PLAYER_NAME, "player",
+                (argName, argType) -> {
+                    Object value = arguments.get(argName);
+                    if (value == null) {
+                        throw new IllegalArgumentException("No such argument: " + argName);
+                    }
+                    return value;
+                });
+    }
+
+    @Benchmark
+    public Object buildAndSerialize() {
+        return buildExecutionData().toString();
+    }
+}
@@ -0,0 +1,248 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.denorite.BenchmarkFixtures.*;
+
+/**
+ * One benchmark per {@code Denorite.serialize*} helper. Game objects cannot be created outside a running
+ * server, so each one drives the {@link EventFields} layout its helper writes through, with values
+ * a typical survival server produces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventSerializationBenchmark {
+    private record Mob(String id, String type, double x, double y, double z) {
+    }
+
+    private record Stack(String item, int count) {
+    }
+
+    private static final EventFields.EntityReader<Mob> MOBS = new EventFields.EntityReader<>() {
+        @Override
+        public String id(Mob entity) {
+            return entity.id();
+        }
+
+        @Override
+        public String type(Mob entity) {
+            return entity.type();
+        }
+
+        @Override
+        public double x(Mob entity) {
+            return entity.x();
+        }
+
+        @Override
+        public double y(Mob entity) {
+            return entity.y();
+        }
+
+        @Override
+        public double z(Mob entity) {
+            return entity.z();
+        }
+    };
+
+    private static final EventFields.StackReader<Stack> STACKS = new EventFields.StackReader<>() {
+        @Override
+        public boolean isEmpty(Stack stack) {
+            return stack.count() == 0;
+        }
+
+        @Override
+        public String item(Stack stack) {
+            return stack.item();
+        }
+
+        @Override
+        public int count(Stack stack) {
+            return stack.count();
+        }
+
+        @Override
+        public int damage(Stack stack) {
+            return 0;
+        }
+    };
+
+    private static final Mob PLAYER = new Mob(PLAYER_ID, "entity.minecraft.player", 128.53125, 64.0, -311.6987);
+    private static final Mob ZOMBIE = new Mob(ENTITY_ID, "entity.minecraft.zombie", 131.2, 63.0, -305.75);
+    private static final Mob SKELETON = new Mob(ENTITY_ID, "entity.minecraft.skeleton", 131.2, 63.0, -305.75);
+    private static final Mob COW = new Mob(ENTITY_ID, "entity.minecraft.cow", 131.2, 63.0, -305.75);
+    private static final Mob ITEM = new Mob(ENTITY_ID, "entity.minecraft.item", 16.5, 64.0, -39.2);
+
+    // A mid-game inventory: 20 occupied slots out of 41
+    private static final Stack[] INVENTORY = new Stack[41];
+
+    static {
+        for (int slot = 0; slot < INVENTORY.length; slot++) {
+            INVENTORY[slot] = slot >= 20 ? new Stack("air", 0) : new Stack(slot % 2 == 0 ? "cobblestone" : "oak_planks", 64);
+        }
+    }
+
+    @Param({"json", "binary"})
+    public String protocol;
+
+    @Setup
+    public void setUp() {
+        BinaryCodec.setEnabled(protocol.equals("binary"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        BinaryCodec.setEnabled(false);
+    }
+
+    private static Object finish(EventWriter out) {
+        out.endData();
+        return out instanceof EventWriter.Binary binary ? binary.toBytes() : ((EventWriter.Json) out).toText();
+    }
+
+    private static EventWriter start(EventType type) {
+        EventWriter out = EventWriter.start(type);
+        out.beginData();
+        return out;
+    }
+
+    @Benchmark
+    public Object serializePlayer() {
+        EventWriter out = start(EventType.PLAYER_JOINED);
+        EventFields.player(out, PLAYER_ID, PLAYER_NAME, PLAYER.x(), PLAYER.y(), PLAYER.z(), DIMENSION);
+        return finish(out);
+    }
+
+    /**
+     * The pre-streaming path: a Gson tree per event, then {@code toString()} on the envelope.
+     */
+    @Benchmark
+    public Object serializePlayerGsonTree() {
+        JsonObject data = new JsonObject();
+        data.addProperty("playerId", PLAYER_ID);
+        data.addProperty("playerName", PLAYER_NAME);
+        data.addProperty("x", PLAYER.x());
+        data.addProperty("y", PLAYER.y());
+        data.addProperty("z", PLAYER.z());
+        data.addProperty("dimension", DIMENSION);
+        JsonObject message = new JsonObject();
+        message.addProperty("eventType", EventType.PLAYER_JOINED.getName());
+        message.add("data", data);
+        return message.toString();
+    }
+
+    @Benchmark
+    public Object serializePlayerDeath() {
+        EventWriter out = start(EventType.PLAYER_DEATH);
+        EventFields.playerDeath(out, PLAYER_ID, PLAYER_NAME, PLAYER.x(), PLAYER.y(), PLAYER.z(), DIMENSION,
+                () -> "Notch was slain by Zombie", () -> ZOMBIE, MOBS);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeEntityDeath() {
+        EventWriter out = start(EventType.ENTITY_DEATH);
+        EventFields.entityDeath(out, ZOMBIE, PLAYER, MOBS, () -> "Zombie was slain by Notch");
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeWorld() {
+        EventWriter out = start(EventType.WORLD_TICK_END);
+        EventFields.world(out, DIMENSION, 1_843_226L, "normal");
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeEntityKill() {
+        EventWriter out = start(EventType.PROJECTILE_KILL);
+        EventFields.entityKill(out, PLAYER, SKELETON, MOBS);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeBlockEvent() {
+        EventWriter out = start(EventType.PLAYER_BREAK_BLOCK_AFTER);
+        EventFields.blockEvent(out, PLAYER_ID, 128, 63, -312, "Block{minecraft:stone}");
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeEntityEvent() {
+        EventWriter out = start(EventType.PLAYER_ATTACK_ENTITY);
+        EventFields.entityEvent(out, PLAYER_ID, COW, MOBS);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeItemEvent() {
+        EventWriter out = start(EventType.PLAYER_USE_ITEM);
+        EventFields.itemEvent(out, PLAYER_ID, "diamond_sword", 1);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeChat() {
+        EventWriter out = start(EventType.PLAYER_CHAT);
+        EventFields.chat(out, PLAYER_ID, PLAYER_NAME, "anyone got spare iron? trading 3 \"emeralds\" each ❤");
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeCommandMessage() {
+        EventWriter out = start(EventType.COMMAND_MESSAGE);
+        EventFields.commandMessage(out, PLAYER_ID, PLAYER_NAME, () -> "server restart in 5 minutes", PLAYER_NAME);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeContainerInteraction() {
+        EventWriter out = start(EventType.CONTAINER_INTERACTION_START);
+        EventFields.containerInteraction(out, PLAYER_ID, PLAYER_NAME, "Block{minecraft:chest}", 130, 64, -309, DIMENSION);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeAdvancement() {
+        EventWriter out = start(EventType.ADVANCEMENT_COMPLETE);
+        EventFields.advancement(out, PLAYER_ID, PLAYER_NAME, "minecraft:story/mine_diamond",
+                () -> "AdvancementDisplay{title=Diamonds!}");
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializePlayerRespawn() {
+        EventWriter out = start(EventType.PLAYER_RESPAWNED);
+        EventFields.playerRespawn(out, PLAYER_ID, PLAYER_NAME, false, 0.5, 70.0, 0.5, DIMENSION);
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeEntityWorldChange() {
+        EventWriter out = start(EventType.ENTITY_CHANGED_WORLD);
+        EventFields.entityWorldChange(out, ITEM, MOBS, DIMENSION, "minecraft:the_nether");
+        return finish(out);
+    }
+
+    @Benchmark
+    public Object serializeEntitySleep() {
+        EventWriter out = start(EventType.ENTITY_START_SLEEPING);
+        EventFields.entitySleep(out, PLAYER, MOBS, 125, 64, -310, DIMENSION);
+        return finish(out);
+    }
+
+    /**
+     * The largest payload a serializer produces.
+     * Inventory changes have no event type of their own yet, so this borrows another envelope.
+     */
+    @Benchmark
+    public Object serializeInventoryChange() {
+        EventWriter out = start(EventType.PLAYER_USE_ITEM);
+        EventFields.inventoryChange(out, PLAYER_ID, PLAYER_NAME, INVENTORY.length, slot -> INVENTORY[slot], STACKS);
+        return finish(out);
+    }
+}
@@ -0,0 +1,68 @@
+package com.denorite;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket that completes every send immediately, so benchmarks measure Denorite and not the network.
+ */
+public class FakeWebSocket implements WebSocket {
+    final LongAdder frames = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+
+    private final CompletableFuture<WebSocket> done = CompletableFuture.completedFuture(this);
+
+    @Override
+    public CompletableFuture<WebSocket> sendText(CharSequence data, boolean last) {
+        frames.increment();
+        bytes.add(data.length());
+        return done;
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean last) {
+        frames.increment();
+        bytes.add(data.remaining());
+        return done;
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+        return done;
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+        return done;
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) {
+        return done;
+    }
+
+    @Override
+    public void request(long n) {
+    }
+
+    @Override
+    public String getSubprotocol() {
+        return "";
+    }
+
+    @Override
+    public boolean isOutputClosed() {
+        return false;
+    }
+
+    @Override
+    public boolean isInputClosed() {
+        return false;
+    }
+
+    @Override
+    public void abort() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.denorite;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of complete backend messages out of the connection's receive buffer, as done in {@code onText}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IncomingMessageBenchmark {
+    @Param({"command", "chat", "subscribe", "register_command"})
+    public String message;
+
+    private String text;
+    private InboundFrameBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        text = switch (message) {
+            case "command" -> "{\"id\":\"b2f1c7a0-4e7e-4c1e-9d39-1f0a7c9e2d11\",\"type\":\"command\",\"data\":\"give Notch minecraft:diamond 64\"}";
+            case "chat" -> "{\"id\":\"7\",\"type\":\"chat\",\"data\":\"§6[Server]§r Restarting in 5 minutes, please log off safely\"}";
+            case "subscribe" -> "{\"id\":\"8\",\"type\":\"subscribe\",\"data\":[\"player_joined\",\"player_left\",\"player_chat\",\"player_death\",\"entity_death\",\"advancement_complete\"]}";
+            default -> "{\"id\":\"9\",\"type\":\"register_command\",\"data\":{\"name\":\"home\",\"description\":\"Teleport home\","
+                    + "\"arguments\":[{\"name\":\"name\",\"type\":\"string\",\"optional\":true}],"
+                    + "\"subcommands\":[{\"name\":\"set\",\"arguments\":[{\"name\":\"name\",\"type\":\"string\"}]},"
+                    + "{\"name\":\"list\"},{\"name\":\"delete\",\"arguments\":[{\"name\":\"name\",\"type\":\"string\"}]}]}}";
+        };
+        buffer = new InboundFrameBuffer(1 << 20);
+        buffer.append(text);
+    }
+
+    @Benchmark
+    public Object parse() throws IOException {
+        return InboundMessage.parse(buffer.chars(), buffer.length());
+    }
+
+    /**
+     * The previous path: copy the buffer into a String, then parse the whole message into a tree.
+     */
+    @Benchmark
+    public Object parseTree() {
+        return JsonParser.parseString(new String(buffer.chars(), 0, buffer.length())).getAsJsonObject();
+    }
+}
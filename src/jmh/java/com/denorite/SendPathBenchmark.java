@@ -0,0 +1,66 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.denorite.BenchmarkFixtures.*;
+
+/**
+ * {@code Denorite.sendToTypeScript} from the calling thread's point of view: subscription check, envelope,
+ * serialization and handing the frame to the outbound queue, with the writer thread draining into a fake socket.
+ * The producer outruns the writer here, so the queue's drop_oldest policy is part of what gets measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SendPathBenchmark {
+    @Param({"json", "binary"})
+    public String protocol;
+
+    @Param({"false", "true"})
+    public boolean batching;
+
+    private FakeWebSocket socket;
+    private JsonObject treeData;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        socket = new FakeWebSocket();
+        BenchmarkFixtures.connect(socket);
+        EventSubscriptions.reset();
+        BinaryCodec.setEnabled(protocol.equals("binary"));
+
+        // Caps from the default config; initialize() would also hook the server tick, which never runs here
+        DenoriteConfig config = BenchmarkFixtures.config();
+        JsonObject options = new JsonObject();
+        options.addProperty("batching", batching);
+        options.addProperty("maxBatchEvents", config.getBatchMaxEvents());
+        options.addProperty("maxBatchBytes", config.getBatchMaxBytes());
+        options.addProperty("maxBatchDelayMs", config.getBatchMaxDelayMs());
+        EventBatcher.configure(options);
+
+        treeData = new JsonObject();
+        treeData.addProperty("command", "home");
+        treeData.addProperty("sender", PLAYER_NAME);
+        treeData.addProperty("senderType", "player");
+    }
+
+    @TearDown
+    public void tearDown() throws ReflectiveOperationException {
+        EventBatcher.reset();
+        BinaryCodec.setEnabled(false);
+        BenchmarkFixtures.disconnect();
+    }
+
+    @Benchmark
+    public void sendStreamed() {
+        Denorite.sendToTypeScript(EventType.PLAYER_JOINED, EventSerializationBenchmark::player);
+    }
+
+    @Benchmark
+    public void sendTree() {
+        Denorite.sendToTypeScript(EventType.CUSTOM_COMMAND_EXECUTED, treeData);
+    }
+}
@@ -0,0 +1,29 @@
+package com.denorite;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Opens a connection to {@code serverUrl} over the transport its scheme selects: a WebSocket for
+ * {@code ws:} and {@code wss:}, or a {@link UnixSocketTransport} for {@code unix:}.
+ */
+final class BackendConnection {
+    private BackendConnection() {
+    }
+
+    static CompletableFuture<WebSocket> open(HttpClient httpClient, DenoriteConfig config, Map<String, String> headers, WebSocket.Listener listener) {
+        String url = config.getServerUrl();
+        if (UnixSocketTransport.isUnixUrl(url)) {
+            return UnixSocketTransport.connect(url, headers, listener, config.getMaxInboundMessageSize());
+        }
+
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()));
+        headers.forEach(builder::header);
+        return builder.buildAsync(URI.create(url), listener);
+    }
+}
@@ -0,0 +1,427 @@
+package com.denorite;
+
+import com.google.gson.*;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding for the backend protocol, negotiated with {@code "protocol": "binary"} in the handshake.
+ * The format is MessagePack (nil, bool, int, float64, str, array, map) plus one extension type: a string that
+ * appears in the shared dictionary is written as an index into it instead of its UTF-8 bytes. The dictionary is
+ * sent to the backend in the handshake response, so repeated keys like playerId, x, y, z cost one or two bytes.
+ * Text JSON stays the default, and binary frames from the backend are always accepted.
+ */
+public class BinaryCodec {
+    public static final byte DICTIONARY_EXT = 1;
+    // Arrays and maps nested deeper than this are rejected before they can exhaust the stack
+    static final int MAX_DEPTH = 64;
+
+    private static final List<String> DICTIONARY = new ArrayList<>();
+    private static final Map<String, Integer> DICTIONARY_INDEX = new HashMap<>();
+
+    static {
+        // Envelope and response keys
+        addToDictionary("eventType", "data", "id", "type", "result", "error", "success",
+                "subcommand", "arguments");
+
+        // Keys used by the event serializers
+        addToDictionary("playerId", "playerName", "x", "y", "z", "dimension", "dimensionKey",
+                "entityId", "entityType", "block", "blockType", "item", "count", "damage", "time",
+                "difficultyLevel", "message", "command", "sender", "senderType", "killedEntity", "killer",
+                "deathMessage", "attackerId", "attackerType", "alive", "joined", "originalWorld", "newWorld",
+                "projectileType", "ownerId", "ownerType", "target", "merchantId", "merchantType",
+                "advancementId", "title", "level", "progress", "power", "isRaining", "isThundering",
+                "rainGradient", "downloadId");
+
+        // Frequent values
+        addToDictionary("minecraft:overworld", "minecraft:the_nether", "minecraft:the_end",
+                "player", "console");
+
+        for (EventType type : EventType.values()) {
+            addToDictionary(type.getName());
+        }
+    }
+
+    private static volatile boolean enabled = false;
+
+    private static void addToDictionary(String... values) {
+        for (String value : values) {
+            if (!DICTIONARY_INDEX.containsKey(value)) {
+                DICTIONARY_INDEX.put(value, DICTIONARY.size());
+                DICTIONARY.add(value);
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies the protocol part of a handshake. Binary output starts with the frame after the handshake response.
+     */
+    public static JsonObject configure(JsonObject options) {
+        boolean binary = options.has("protocol") && options.get("protocol").getAsString().equals("binary");
+
+        JsonObject negotiated = new JsonObject();
+        negotiated.addProperty("protocol", binary ? "binary" : "json");
+        if (binary) {
+            JsonArray dictionary = new JsonArray();
+            DICTIONARY.forEach(dictionary::add);
+            negotiated.add("dictionary", dictionary);
+        }
+        return negotiated;
+    }
+
+    public static void setEnabled(boolean binary) {
+        enabled = binary;
+    }
+
+    public static byte[] encode(JsonElement element) {
+        Output out = new Output(256);
+        write(out, element);
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame is malformed, declares sizes beyond its own length or
+     *                                  nests deeper than {@value #MAX_DEPTH} levels
+     */
+    public static JsonElement decode(ByteBuffer buffer) {
+        return read(buffer, 0);
+    }
+
+    static void write(Output out, JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            out.writeNil();
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            out.writeMapHeader(object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                out.writeString(entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.writeArrayHeader(array.size());
+            for (JsonElement item : array) {
+                write(out, item);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.writeBoolean(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                writeNumber(out, primitive.getAsNumber());
+            } else {
+                out.writeString(primitive.getAsString());
+            }
+        }
+    }
+
+    private static void writeNumber(Output out, Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            out.writeLong(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            out.writeDouble(number.doubleValue());
+        } else {
+            // Numbers parsed by Gson keep their text, integral ones stay integers
+            String text = number.toString();
+            if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                out.writeLong(number.longValue());
+            } else {
+                out.writeDouble(number.doubleValue());
+            }
+        }
+    }
+
+    private static JsonElement read(ByteBuffer in, int depth) {
+        int b = in.get() & 0xff;
+
+        if (b <= 0x7f) {
+            return new JsonPrimitive(b);
+        }
+        if (b >= 0xe0) {
+            return new JsonPrimitive((byte) b);
+        }
+        if ((b & 0xf0) == 0x80) {
+            return readMap(in, b & 0x0f, depth);
+        }
+        if ((b & 0xf0) == 0x90) {
+            return readArray(in, b & 0x0f, depth);
+        }
+        if ((b & 0xe0) == 0xa0) {
+            return new JsonPrimitive(readUtf8(in, b & 0x1f));
+        }
+
+        return switch (b) {
+            case 0xc0 -> JsonNull.INSTANCE;
+            case 0xc2 -> new JsonPrimitive(false);
+            case 0xc3 -> new JsonPrimitive(true);
+            case 0xca -> new JsonPrimitive(in.getFloat());
+            case 0xcb -> new JsonPrimitive(in.getDouble());
+            case 0xcc -> new JsonPrimitive(in.get() & 0xff);
+            case 0xcd -> new JsonPrimitive(in.getShort() & 0xffff);
+            case 0xce -> new JsonPrimitive(in.getInt() & 0xffffffffL);
+            case 0xcf -> readUint64(in);
+            case 0xd0 -> new JsonPrimitive(in.get());
+            case 0xd1 -> new JsonPrimitive(in.getShort());
+            case 0xd2 -> new JsonPrimitive(in.getInt());
+            case 0xd3 -> new JsonPrimitive(in.getLong());
+            case 0xd4 -> readDictionaryRef(in, 1);
+            case 0xd5 -> readDictionaryRef(in, 2);
+            case 0xd9 -> new JsonPrimitive(readUtf8(in, in.get() & 0xff));
+            case 0xda -> new JsonPrimitive(readUtf8(in, in.getShort() & 0xffff));
+            case 0xdb -> new JsonPrimitive(readUtf8(in, in.getInt()));
+            case 0xdc -> readArray(in, in.getShort() & 0xffff, depth);
+            case 0xdd -> readArray(in, in.getInt(), depth);
+            case 0xde -> readMap(in, in.getShort() & 0xffff, depth);
+            case 0xdf -> readMap(in, in.getInt(), depth);
+            default -> throw new IllegalArgumentException("Unsupported binary type 0x" + Integer.toHexString(b));
+        };
+    }
+
+    private static JsonObject readMap(ByteBuffer in, int size, int depth) {
+        // Every key and every value takes at least one byte
+        checkSize(in, size, 2, depth);
+        JsonObject object = new JsonObject();
+        for (int i = 0; i < size; i++) {
+            JsonElement key = read(in, depth + 1);
+            if (!key.isJsonPrimitive() || !key.getAsJsonPrimitive().isString()) {
+                throw new IllegalArgumentException("Binary map keys must be strings");
+            }
+            object.add(key.getAsString(), read(in, depth + 1));
+        }
+        return object;
+    }
+
+    private static JsonArray readArray(ByteBuffer in, int size, int depth) {
+        checkSize(in, size, 1, depth);
+        JsonArray array = new JsonArray(size);
+        for (int i = 0; i < size; i++) {
+            array.add(read(in, depth + 1));
+        }
+        return array;
+    }
+
+    // Sizes come from the frame itself, nothing is allocated for more elements than the frame can hold
+    private static void checkSize(ByteBuffer in, int size, int minBytesPerElement, int depth) {
+        if (depth >= MAX_DEPTH) {
+            throw new IllegalArgumentException("Binary message nested deeper than " + MAX_DEPTH + " levels");
+        }
+        if (size < 0 || (long) size * minBytesPerElement > in.remaining()) {
+            throw new IllegalArgumentException("Binary container of " + Integer.toUnsignedString(size)
+                    + " elements is larger than the remaining " + in.remaining() + " bytes");
+        }
+    }
+
+    private static JsonPrimitive readUint64(ByteBuffer in) {
+        long value = in.getLong();
+        return value >= 0 ? new JsonPrimitive(value) : new JsonPrimitive(new BigInteger(Long.toUnsignedString(value)));
+    }
+
+    private static JsonPrimitive readDictionaryRef(ByteBuffer in, int width) {
+        if (in.get() != DICTIONARY_EXT) {
+            throw new IllegalArgumentException("Unsupported binary extension type");
+        }
+        int index = width == 1 ? in.get() & 0xff : in.getShort() & 0xffff;
+        if (index >= DICTIONARY.size()) {
+            throw new IllegalArgumentException("Dictionary index out of range: " + index);
+        }
+        return new JsonPrimitive(DICTIONARY.get(index));
+    }
+
+    private static String readUtf8(ByteBuffer in, int length) {
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Binary string of " + Integer.toUnsignedString(length)
+                    + " bytes is longer than the remaining " + in.remaining() + " bytes");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Growable byte buffer with the MessagePack primitives, reusable via {@link #reset()}.
+     */
+    static final class Output {
+        private byte[] buffer;
+        private int length;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        void writeTo(Output other) {
+            other.ensure(length);
+            System.arraycopy(buffer, 0, other.buffer, other.length, length);
+            other.length += length;
+        }
+
+        void writeRaw(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        private void put(int b) {
+            ensure(1);
+            buffer[length++] = (byte) b;
+        }
+
+        private void putShort(int v) {
+            ensure(2);
+            buffer[length++] = (byte) (v >>> 8);
+            buffer[length++] = (byte) v;
+        }
+
+        private void putInt(int v) {
+            ensure(4);
+            buffer[length++] = (byte) (v >>> 24);
+            buffer[length++] = (byte) (v >>> 16);
+            buffer[length++] = (byte) (v >>> 8);
+            buffer[length++] = (byte) v;
+        }
+
+        private void putLong(long v) {
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        void writeNil() {
+            put(0xc0);
+        }
+
+        void writeBoolean(boolean value) {
+            put(value ? 0xc3 : 0xc2);
+        }
+
+        void writeLong(long value) {
+            if (value >= 0 && value <= 0x7f) {
+                put((int) value);
+            } else if (value < 0 && value >= -32) {
+                put((int) value & 0xff);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                put(0xd0);
+                put((int) value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                put(0xd1);
+                putShort((int) value);
+            } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                put(0xd2);
+                putInt((int) value);
+            } else {
+                put(0xd3);
+                putLong(value);
+            }
+        }
+
+        void writeDouble(double value) {
+            put(0xcb);
+            putLong(Double.doubleToLongBits(value));
+        }
+
+        void writeString(String value) {
+            Integer index = DICTIONARY_INDEX.get(value);
+            if (index != null) {
+                if (index < 256) {
+                    put(0xd4);
+                    put(DICTIONARY_EXT);
+                    put(index);
+                } else {
+                    put(0xd5);
+                    put(DICTIONARY_EXT);
+                    putShort(index);
+                }
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 32) {
+                put(0xa0 | bytes.length);
+            } else if (bytes.length < 256) {
+                put(0xd9);
+                put(bytes.length);
+            } else if (bytes.length < 65536) {
+                put(0xda);
+                putShort(bytes.length);
+            } else {
+                put(0xdb);
+                putInt(bytes.length);
+            }
+            writeRaw(bytes);
+        }
+
+        void writeArrayHeader(int size) {
+            if (size < 16) {
+                put(0x90 | size);
+            } else if (size < 65536) {
+                put(0xdc);
+                putShort(size);
+            } else {
+                put(0xdd);
+                putInt(size);
+            }
+        }
+
+        /**
+         * Writes a map16 header whose size is filled in later with {@link #patchSize}, for maps
+         * streamed without knowing their size up front.
+         */
+        int writeMapPlaceholder() {
+            put(0xde);
+            int position = length;
+            putShort(0);
+            return position;
+        }
+
+        int writeArrayPlaceholder() {
+            put(0xdc);
+            int position = length;
+            putShort(0);
+            return position;
+        }
+
+        void patchSize(int position, int size) {
+            buffer[position] = (byte) (size >>> 8);
+            buffer[position + 1] = (byte) size;
+        }
+
+        void writeMapHeader(int size) {
+            if (size < 16) {
+                put(0x80 | size);
+            } else if (size < 65536) {
+                put(0xde);
+                putShort(size);
+            } else {
+                put(0xdf);
+                putInt(size);
+            }
+        }
+    }
+}
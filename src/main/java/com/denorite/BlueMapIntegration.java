@@ -147,6 +147,24 @@ public class BlueMapIntegration {
         args.add(markerId);
     }
 
+    public static void registerHandlers() {
+        MessageHandlers.register(
+            "bluemap",
+            MessageHandlers.Runs.SERVER_THREAD,
+            0,
+            context -> {
+                JsonElement data = context.getMessage().get("data");
+                if (data == null || !data.isJsonObject()) {
+                    throw new IllegalArgumentException(
+                        "Missing or invalid 'data' field for bluemap"
+                    );
+                }
+                handleMarkerCommand(data.getAsJsonObject());
+                return "Bluemap marker command executed";
+            }
+        );
+    }
+
     public static void handleMarkerCommand(JsonObject data) {
         if (!isEnabled) {
             Denorite.LOGGER.warn("BlueMap integration is not enabled");
@@ -267,7 +285,7 @@ public class BlueMapIntegration {
                     JsonObject response = new JsonObject();
                     response.addProperty("id", id);
                     response.addProperty("label", set.getLabel());
-                    Denorite.sendToTypeScript("bluemap_set_created", response);
+                    Denorite.sendToTypeScript(EventType.BLUEMAP_SET_CREATED, response);
                 });
         } catch (Exception e) {
             LOGGER.error("Error creating marker set: " + e.getMessage());
@@ -289,7 +307,7 @@ public class BlueMapIntegration {
 
                     JsonObject response = new JsonObject();
                     response.addProperty("id", id);
-                    Denorite.sendToTypeScript("bluemap_set_removed", response);
+                    Denorite.sendToTypeScript(EventType.BLUEMAP_SET_REMOVED, response);
                 });
         }
     }
@@ -305,7 +323,7 @@ public class BlueMapIntegration {
             sets.add(setData);
         });
 
-        Denorite.sendToTypeScript("bluemap_sets", sets.getAsJsonObject());
+        Denorite.sendToTypeScript(EventType.BLUEMAP_SETS, sets.getAsJsonObject());
     }
 
     private static void addMarker(
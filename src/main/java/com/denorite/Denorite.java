@@ -43,42 +43,55 @@ import net.minecraft.world.chunk.Chunk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import net.minecraft.entity.LivingEntity;
-import net.minecraft.entity.damage.DamageTracker;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
 
-import java.net.URI;
+import java.io.ByteArrayOutputStream;
 import java.net.http.HttpClient;
 import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.function.Supplier;
 
 public class Denorite implements ModInitializer {
 	public static final String MOD_ID = "Denorite";
 	public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
-	private static final StringBuffer messageBuffer = new StringBuffer();
-	private static final Object bufferLock = new Object();
 
-	private static WebSocket webSocket;
-	private static final Gson gson = new Gson();
+	private static volatile WebSocket webSocket;
 	static MinecraftServer server;
 	private static boolean strictMode = true;
-	private static final int RECONNECT_DELAY = 1000;
+	// One client for the lifetime of the server, each new client would bring its own selector thread
+	private static HttpClient httpClient;
+	private static ReconnectPolicy reconnectPolicy;
+	private static Heartbeat heartbeat;
+	private static volatile boolean everConnected;
+	// Strict mode gave up waiting for the first connection
+	private static volatile boolean startupDeadlinePassed;
 
 	private DenoriteConfig config;
 
 	private static Block lastInteractedBlock = null;
 	private static BlockPos lastInteractedPos = null;
 
-	private static final ExecutorService executorService =
-			Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	// Shared timer for periodic housekeeping (batch flushes and the like)
+	static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Denorite-Scheduler");
+		thread.setDaemon(true);
+		return thread;
+	});
 
-	// Method to submit tasks
+	// Method to submit tasks, they run on the I/O request lane
 	public static CompletableFuture<Void> submitTask(Runnable task) {
-		return CompletableFuture.runAsync(task, executorService);
+		return CompletableFuture.runAsync(task, RequestExecutor.executor(RequestExecutor.Lane.IO));
 	}
 
 	// Method to submit tasks with results
 	public static <T> CompletableFuture<T> submitTask(Supplier<T> task) {
-		return CompletableFuture.supplyAsync(task, executorService);
+		return CompletableFuture.supplyAsync(task, RequestExecutor.executor(RequestExecutor.Lane.IO));
 	}
 
 	@Override
@@ -86,6 +99,18 @@ public class Denorite implements ModInitializer {
 		LOGGER.info("Initializing Denorite");
 //		DenoriteBanner.printBanner();
 		config = new DenoriteConfig();
+		EventSpool.initialize(config);
+		OutboundQueue.initialize(config);
+		RequestExecutor.initialize(config);
+		ServerTaskQueue.initialize(config);
+		InboundFlowControl.initialize(config);
+		ResponseCache.initialize(config);
+		WorldSnapshot.initialize(config);
+		// Everything events and handshakes depend on is set up before the connection can open
+		TickStats.initialize(config);
+		EventBatcher.initialize(config);
+		RateLimiter.initialize(config);
+		registerMessageHandlers();
 		initializeWebSocket();
 		DynamicCommandHandler.initialize();
 		BlueMapIntegration.initialize();
@@ -96,6 +121,10 @@ public class Denorite implements ModInitializer {
 
 	private void setServer(MinecraftServer minecraftServer) {
 		server = minecraftServer;
+		if (startupDeadlinePassed) {
+			LOGGER.error("Strict mode: no connection to the Denorite Server, stopping the server.");
+			server.stop(false);
+		}
 		FileSystemHandler.initialize(server);
 //		LOGGER.info("Server reference set in Denorite");
 	}
@@ -105,92 +134,192 @@ public class Denorite implements ModInitializer {
 //		LOGGER.info("Server reference unset in Denorite");
 	}
 
+	// Never blocks: server startup continues while the connection is being set up
 	private void initializeWebSocket() {
+		httpClient = HttpClient.newHttpClient();
+		reconnectPolicy = new ReconnectPolicy(config);
+		heartbeat = Heartbeat.forChannel("control", config);
 		connectWebSocket();
+		if (config.isTelemetryChannelEnabled()) {
+			TelemetryChannel.initialize(config, httpClient);
+		}
+		if (config.isStrictMode()) {
+			scheduler.schedule(this::enforceStrictModeDeadline, config.getStrictModeDeadlineMs(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void enforceStrictModeDeadline() {
+		if (everConnected) {
+			return;
+		}
+		LOGGER.error("No connection to the Denorite Server within " + config.getStrictModeDeadlineMs() + " ms in strict mode. Shutting down server.");
+		startupDeadlinePassed = true;
+		if (server != null) {
+			server.stop(false);
+		}
 	}
 
 	private void connectWebSocket() {
+		long attempt = reconnectPolicy.startAttempt();
 		try {
-			HttpClient client = HttpClient.newHttpClient();
 			String origin = config.getOrigin(); // Assume we've added this to the config
 			if (origin == null || origin.isEmpty()) {
 				throw new IllegalStateException("Origin must be set in the configuration");
 			}
 
-			CompletableFuture<WebSocket> ws = client.newWebSocketBuilder()
-					.header("Authorization", "Bearer " + config.getJwtToken())
-					.header("Origin", origin)
-					.buildAsync(URI.create(config.getServerUrl()), new WebSocket.Listener() {
+			Map<String, String> headers = new LinkedHashMap<>();
+			headers.put("Authorization", "Bearer " + config.getJwtToken());
+			headers.put("Origin", origin);
+			if (config.isTelemetryChannelEnabled()) {
+				// Lets the backend tell this connection apart from the telemetry one
+				headers.put(TelemetryChannel.CHANNEL_HEADER, "control");
+			}
+			BackendConnection.open(httpClient, config, headers, new WebSocket.Listener() {
 						@Override
 						public void onOpen(WebSocket webSocket) {
 							LOGGER.info("Connected to Denorite Server");
 //							DenoriteBanner.printBanner();
 							Denorite.webSocket = webSocket;
+							everConnected = true;
+							reconnectPolicy.connected();
 							DynamicCommandHandler.handleReconnect();
-							WebSocket.Listener.super.onOpen(webSocket);
+							EventSubscriptions.reset();
+							FieldProjections.reset();
+							EventBatcher.reset();
+							BinaryCodec.setEnabled(false);
+							if (!config.isTelemetryChannelEnabled()) {
+								// Otherwise spooled events are replayed when the telemetry channel opens
+								EventSpool.replay(webSocket);
+							}
+							InboundFlowControl.attach(webSocket);
+							OutboundQueue.connected(webSocket, () -> handleDisconnect(attempt));
+							heartbeat.start(webSocket, InboundFlowControl::isPaused, () -> handleDisconnect(attempt));
 						}
 
+						// The client delivers one fragment at a time per connection, so these need no locking
+						private final InboundFrameBuffer textBuffer = new InboundFrameBuffer(config.getMaxInboundMessageSize());
+						private final ByteArrayOutputStream binaryBuffer = new ByteArrayOutputStream();
+						private boolean binaryOverflowed;
+
 						@Override
 						public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-							synchronized (bufferLock) {
-								messageBuffer.append(data);
-
-								if (last) {
-									try {
-										String completeMessage = messageBuffer.toString();
-										handleIncomingMessage(completeMessage);
-									} catch (Exception e) {
-										LOGGER.error("Error processing complete message: " + e.getMessage());
-										LOGGER.error("Message content: " + messageBuffer.toString());
-									} finally {
-										messageBuffer.setLength(0); // Clear the buffer
+							textBuffer.append(data);
+							if (last) {
+								try {
+									if (textBuffer.isOverflowed()) {
+										LOGGER.error("Dropped inbound message larger than " + config.getMaxInboundMessageSize() + " characters");
+									} else if (textBuffer.length() == 0) {
+										LOGGER.warn("Received empty message");
+									} else {
+										handleIncomingMessage(InboundMessage.parse(textBuffer.chars(), textBuffer.length()));
+									}
+								} catch (Exception e) {
+									LOGGER.error("Error processing complete message: " + e.getMessage());
+									LOGGER.error("Message content: " + new String(textBuffer.chars(), 0, Math.min(textBuffer.length(), 1024)));
+								} finally {
+									textBuffer.reset();
+								}
+							}
+							InboundFlowControl.frameHandled(webSocket, last);
+							return null;
+						}
+
+						@Override
+						public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+							if (binaryBuffer.size() + data.remaining() > config.getMaxInboundMessageSize()) {
+								binaryOverflowed = true;
+								binaryBuffer.reset();
+							}
+							if (!binaryOverflowed) {
+								byte[] bytes = new byte[data.remaining()];
+								data.get(bytes);
+								binaryBuffer.writeBytes(bytes);
+							}
+
+							if (last) {
+								try {
+									if (binaryOverflowed) {
+										LOGGER.error("Dropped inbound binary message larger than " + config.getMaxInboundMessageSize() + " bytes");
+									} else {
+										JsonElement message = BinaryCodec.decode(ByteBuffer.wrap(binaryBuffer.toByteArray()));
+										if (!message.isJsonObject()) {
+											throw new IllegalArgumentException("Binary message is not a map");
+										}
+										handleIncomingMessage(InboundMessage.of(message.getAsJsonObject()));
 									}
+								} catch (Exception e) {
+									LOGGER.error("Error processing binary message: " + e.getMessage());
+								} finally {
+									binaryBuffer.reset();
+									binaryOverflowed = false;
 								}
 							}
-							return WebSocket.Listener.super.onText(webSocket, data, last);
+							InboundFlowControl.frameHandled(webSocket, last);
+							return null;
+						}
+
+						@Override
+						public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+							heartbeat.pong(message);
+							return WebSocket.Listener.super.onPong(webSocket, message);
 						}
 
 						@Override
 						public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
 							LOGGER.warn("WebSocket closed: " + statusCode + " " + reason);
-							handleDisconnect();
+							handleDisconnect(attempt);
 							return WebSocket.Listener.super.onClose(webSocket, statusCode, reason);
 						}
 
 						@Override
 						public void onError(WebSocket webSocket, Throwable error) {
 							LOGGER.error("WebSocket error: " + error.getMessage());
-							handleDisconnect();
+							handleDisconnect(attempt);
 							WebSocket.Listener.super.onError(webSocket, error);
 						}
+					})
+					.whenComplete((ws, error) -> {
+						if (error != null) {
+							Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+							LOGGER.error("Failed to connect to Denorite: " + cause.getMessage());
+							LOGGER.error("Please ensure the Denorite Server is running on " + config.getServerUrl());
+							handleDisconnect(attempt);
+						}
 					});
-			try {
-				ws.get(5, TimeUnit.SECONDS);
-			} catch (Exception e) {
-				LOGGER.error("Failed to connect to Denorite: " + e.getMessage());
-				LOGGER.error("Please ensure the Denorite Server is running on " + config.getServerUrl());
-				LOGGER.error("Strict mode: " + config.isStrictMode());
-				LOGGER.error("Server will shut down if no connection and set to true.");
-				handleDisconnect();
-			}
 		} catch (Exception e) {
 			LOGGER.error("Failed to initialize WebSocket: " + e.getMessage());
-			handleDisconnect();
+			handleDisconnect(attempt);
 		}
 	}
 
-	private void handleDisconnect() {
+	private void handleDisconnect(long attempt) {
+		// onClose and onError can both fire for one connection, only the first one schedules a reconnect
+		if (!reconnectPolicy.claimDisconnect(attempt)) {
+			return;
+		}
 		Denorite.webSocket = null;
-		if (config.isStrictMode()) {
+		heartbeat.stop();
+		// Anything produced while disconnected is spooled, which only takes JSON text frames
+		BinaryCodec.setEnabled(false);
+		EventBatcher.reset();
+		if (startupDeadlinePassed) {
+			return;
+		}
+		if (config.isStrictMode() && everConnected) {
 			LOGGER.error("WebSocket disconnected in strict mode. Shutting down server.");
 			if (server != null) {
 				server.stop(false);
 			}
 		} else {
-			LOGGER.warn("WebSocket disconnected. Attempting to reconnect in " + (RECONNECT_DELAY / 1000) + " seconds.");
-			LOGGER.error("Strict mode: " + config.isStrictMode());
-			LOGGER.error("Server will shut down if no connection and set to true.");
-			CompletableFuture.delayedExecutor(RECONNECT_DELAY, TimeUnit.MILLISECONDS).execute(this::connectWebSocket);
+			long delay = reconnectPolicy.nextDelayMs();
+			if (config.isStrictMode()) {
+				// Before the first connection strict mode keeps retrying until its startup deadline
+				LOGGER.warn("Not connected yet. Retrying in " + delay + " ms, the server shuts down if there is no connection "
+						+ config.getStrictModeDeadlineMs() + " ms after startup.");
+			} else {
+				LOGGER.warn("WebSocket disconnected. Attempting to reconnect in " + delay + " ms.");
+			}
+			scheduler.schedule(this::connectWebSocket, delay, TimeUnit.MILLISECONDS);
 		}
 	}
 
@@ -210,7 +339,9 @@ public class Denorite implements ModInitializer {
 
 	public static void onContainerClose(ServerPlayerEntity player, ScreenHandler handler) {
 		if (lastInteractedBlock != null && lastInteractedPos != null) {
-			sendToTypeScript("container_interaction_end", serializeContainerInteraction(player, lastInteractedBlock, lastInteractedPos));
+			if (wants(EventType.CONTAINER_INTERACTION_END)) {
+				sendToTypeScript(EventType.CONTAINER_INTERACTION_END, out -> serializeContainerInteraction(out, player, lastInteractedBlock, lastInteractedPos));
+			}
 			lastInteractedBlock = null;
 			lastInteractedPos = null;
 		}
@@ -222,126 +353,259 @@ public class Denorite implements ModInitializer {
 	}
 
 
-	public static void sendToTypeScript(String eventType, JsonObject data) {
-		if (webSocket != null) {
-			JsonObject jsonMessage = new JsonObject();
-			jsonMessage.addProperty("eventType", eventType);
-			jsonMessage.add("data", data);
-			String message = jsonMessage.toString();
-			webSocket.sendText(message, true);
+	static WebSocket getWebSocket() {
+		return webSocket;
+	}
+
+	// While disconnected, events are still produced when the spool or the pre-connect buffer can keep them
+	private static boolean canSend() {
+		return OutboundQueue.eventSocket() != null || EventSpool.isEnabled() || OutboundQueue.isBufferingPreConnect();
+	}
+
+	private static boolean wants(EventType eventType) {
+		return EventSubscriptions.isSubscribed(eventType);
+	}
+
+	// Subscribed and within the player's rate limit for this event type
+	private static boolean allowed(EventType eventType, PlayerEntity player) {
+		return wants(eventType) && RateLimiter.tryAcquire(player, eventType);
+	}
+
+	public static void sendToTypeScript(EventType eventType) {
+		sendToTypeScript(eventType, (JsonObject) null);
+	}
+
+	/**
+	 * Sends an event whose data is written field by field into this thread's reused buffer.
+	 */
+	public static void sendToTypeScript(EventType eventType, EventWriter.Body body) {
+		if (canSend() && wants(eventType)) {
+			EventWriter out = EventWriter.start(eventType);
+			out.beginData();
+			body.write(out);
+			out.endData();
+			emit(eventType, out);
 		} else {
 //			 LOGGER.warn("WebSocket is null, cannot send message to Denorite: " + eventType);
 		}
 	}
 
-	private void handleIncomingMessage(String message) {
-		if (message == null || message.trim().isEmpty()) {
-			LOGGER.warn("Received empty message");
+	public static void sendToTypeScript(EventType eventType, JsonObject data) {
+		if (canSend() && wants(eventType)) {
+			EventWriter out = EventWriter.start(eventType);
+			out.treeData(data);
+			emit(eventType, out);
+		}
+	}
+
+	private static void emit(EventType eventType, EventWriter out) {
+		if (out instanceof EventWriter.Binary binary) {
+			byte[] message = binary.toBytes();
+			if (EventBatcher.isEnabled()) {
+				EventBatcher.add(message);
+			} else {
+				OutboundQueue.offerEvent(eventType.getName(), message);
+			}
+		} else {
+			String message = ((EventWriter.Json) out).toText();
+			if (EventBatcher.isEnabled()) {
+				EventBatcher.add(message);
+			} else {
+				OutboundQueue.offerEvent(eventType.getName(), message);
+			}
+		}
+	}
+
+	private void handleIncomingMessage(InboundMessage message) {
+		if (!message.has("id") || !message.has("type")) {
+			LOGGER.warn("Received malformed message without required fields: " + message);
 			return;
 		}
 
-		try {
-			JsonObject jsonMessage = gson.fromJson(message, JsonObject.class);
-			if (!jsonMessage.has("id") || !jsonMessage.has("type")) {
-				LOGGER.warn("Received malformed message without required fields: " + message);
+		String id = message.getId();
+		String type = message.getType();
+		JsonObject response = new JsonObject();
+		response.addProperty("id", id);
+		if (type.equals("cancel")) {
+			// Answered right here so a cancel never waits behind the requests it is meant to stop
+			JsonElement target = message.get("data");
+			if (target != null && target.isJsonPrimitive() && InFlightRequests.cancel(target.getAsString())) {
+				response.addProperty("result", "cancelled");
+			} else {
+				response.addProperty("error", "No request in flight with id " + target);
+			}
+			sendResponse(type, response);
+			return;
+		}
+
+		long deadlineMs = 0;
+		if (message.has("deadlineMs")) {
+			JsonElement deadline = message.get("deadlineMs");
+			if (!deadline.isJsonPrimitive() || !deadline.getAsJsonPrimitive().isNumber() || deadline.getAsLong() <= 0) {
+				response.addProperty("error", "Invalid 'deadlineMs', expected a positive number of milliseconds");
+				sendResponse(type, response);
 				return;
 			}
+			deadlineMs = deadline.getAsLong();
+		}
 
-			// Process each message in its own thread
-			CompletableFuture.runAsync(() -> {
-				String id = jsonMessage.get("id").getAsString();
-				String type = jsonMessage.get("type").getAsString();
-				JsonObject response = new JsonObject();
-				response.addProperty("id", id);
+		JsonElement streamRequested = message.get("stream");
+		ResponseStream stream = streamRequested != null && streamRequested.isJsonPrimitive() && streamRequested.getAsBoolean()
+				? new ResponseStream(id, config.getResponseChunkSize()) : null;
+
+		MessageHandlers.Context context = new MessageHandlers.Context(message, stream);
+		// Responses go out as each request finishes, in whatever order that happens. The response is cached
+		// before the request stops counting as in flight, so a retry always finds one or the other
+		InFlightRequests.Request request = InFlightRequests.register(id, deadlineMs, (result, error) -> {
+			if (error == null && stream != null) {
+				stream.finish(response, result);
+				LOGGER.info("Streamed " + type + " response " + id + " in " + (response.get("seq").getAsInt() + 1) + " chunk(s)");
+			} else if (error == null) {
+				LOGGER.info(result);
+				response.addProperty("result", result);
+			} else {
+				String reason = InFlightRequests.describe(error);
+				LOGGER.error("Error executing " + type + " request " + id + ": " + reason);
+				response.addProperty("error", reason);
+				if (stream != null) {
+					response.addProperty("done", true);
+				}
+			}
+			// Rejected requests never ran and streamed ones cannot be replayed from a single frame
+			if (stream == null && !(error instanceof RejectedExecutionException)) {
+				ResponseCache.put(type, id, response);
+			}
+			sendResponse(type, response);
+			if (error == null && context.getAfterResponse() != null) {
+				context.getAfterResponse().run();
+			}
+		});
+		if (request == null) {
+			// A retry of a request that is still running, it is answered once that finishes
+			LOGGER.info("Ignoring duplicate " + type + " request " + id + ", already in flight");
+			return;
+		}
+		if (ResponseCache.isCacheable(type)) {
+			// Checked only now that the id is registered, a request finishing in between has been cached
+			JsonObject cached = ResponseCache.get(id);
+			if (cached != null) {
+				// A retry of a request that already ran, typically resent after a reconnect
+				LOGGER.info("Replaying cached response for " + type + " request " + id);
+				request.discard();
+				sendResponse(type, cached);
+				return;
+			}
+		}
 
-				try {
-					String result = "";
-					switch (type) {
-						case "command":
-							if (!jsonMessage.has("data")) {
-								throw new IllegalArgumentException("Missing required 'data' field for command");
-							}
-							result = executeCommand(jsonMessage.get("data").getAsString());
-							break;
+		MessageHandlers.dispatch(context, request);
+	}
 
-						case "chat":
-							if (!jsonMessage.has("data")) {
-								throw new IllegalArgumentException("Missing required 'data' field for chat");
-							}
-							broadcastMessage(jsonMessage.get("data").getAsString());
-							result = "Message broadcasted";
-							break;
+	/**
+	 * Registers the handlers for the protocol's own requests. Feature modules register theirs in
+	 * {@code registerHandlers} or {@code initialize}.
+	 */
+	private void registerMessageHandlers() {
+		MessageHandlers.register("command", MessageHandlers.Runs.SERVER_THREAD, 0, context -> {
+			InboundMessage message = context.getMessage();
+			if (!message.has("data")) {
+				throw new IllegalArgumentException("Missing required 'data' field for command");
+			}
+			return executeCommand(message.get("data").getAsString());
+		});
 
-						case "bluemap":
-							if (!jsonMessage.has("data") || !jsonMessage.get("data").isJsonObject()) {
-								throw new IllegalArgumentException("Missing or invalid 'data' field for bluemap");
-							}
-							BlueMapIntegration.handleMarkerCommand(jsonMessage.get("data").getAsJsonObject());
-							result = "Bluemap marker command executed";
-							break;
+		// Each batch fans out into one server task per command, so only a few run at once
+		MessageHandlers.registerAsync("command_batch", MessageHandlers.Runs.FAST_LANE, 4, context -> {
+			InboundMessage message = context.getMessage();
+			if (!message.has("data") || !message.get("data").isJsonArray()) {
+				throw new IllegalArgumentException("Missing or invalid 'data' field for command_batch");
+			}
+			return executeCommandBatch(message.get("data").getAsJsonArray());
+		});
 
-						case "register_command":
-							if (!jsonMessage.has("data") || !jsonMessage.get("data").isJsonObject()) {
-								throw new IllegalArgumentException("Missing or invalid 'data' field for register_command");
-							}
-							DynamicCommandHandler.confirmReconnect();
-							DynamicCommandHandler.registerCommand(jsonMessage.get("data").getAsJsonObject());
-							result = "Command registered. Restart the server to apply changes.";
-							break;
-
-						case "unregister_command":
-							if (!jsonMessage.has("data")) {
-								throw new IllegalArgumentException("Missing required 'data' field for unregister_command");
-							}
-							DynamicCommandHandler.unregisterCommand(jsonMessage.get("data").getAsString());
-							result = "Command unregistered. Restart the server to apply changes.";
-							break;
-
-						case "clear_commands":
-							DynamicCommandHandler.clearCommands();
-							result = "All custom commands cleared. Restart the server to apply changes.";
-							break;
-
-						case "files":
-							if (!jsonMessage.has("subcommand")) {
-								throw new IllegalArgumentException("Files command requires 'subcommand' field");
-							}
-							if (!jsonMessage.has("arguments") || !jsonMessage.get("arguments").isJsonObject()) {
-								throw new IllegalArgumentException("Files command requires 'arguments' field");
-							}
-							result = FileSystemHandler.handleFileCommand(
-									jsonMessage.get("subcommand").getAsString(),
-									jsonMessage.get("arguments").getAsJsonObject()
-							).toString();
-							break;
-
-						default:
-							LOGGER.warn("Unknown message type: " + type);
-							throw new IllegalArgumentException("Unknown message type: " + type);
-					}
-					LOGGER.info(result);
-					response.addProperty("result", result);
-				} catch (Exception e) {
-					LOGGER.error("Error executing command: " + e.getMessage());
-					response.addProperty("error", e.getMessage());
-				}
+		MessageHandlers.register("chat", MessageHandlers.Runs.SERVER_THREAD, 0, context -> {
+			InboundMessage message = context.getMessage();
+			if (!message.has("data")) {
+				throw new IllegalArgumentException("Missing required 'data' field for chat");
+			}
+			broadcastMessage(message.get("data").getAsString());
+			return "Message broadcasted";
+		});
 
-				// Send response synchronously to ensure order
-				synchronized (webSocket) {
-					if (webSocket != null) {
-						String responseString = response.toString();
-						webSocket.sendText(responseString, true);
-					}
-				}
-			});
+		MessageHandlers.Handler subscriptions = context -> {
+			InboundMessage message = context.getMessage();
+			if (!message.has("data")) {
+				throw new IllegalArgumentException("Missing required 'data' field for " + message.getType());
+			}
+			return EventSubscriptions.update(message.get("data"), message.getType().equals("subscribe"));
+		};
+		MessageHandlers.register("subscribe", MessageHandlers.Runs.FAST_LANE, 0, subscriptions);
+		MessageHandlers.register("unsubscribe", MessageHandlers.Runs.FAST_LANE, 0, subscriptions);
+
+		MessageHandlers.register("projection", MessageHandlers.Runs.FAST_LANE, 0, context -> {
+			InboundMessage message = context.getMessage();
+			if (!message.has("data")) {
+				throw new IllegalArgumentException("Missing required 'data' field for projection");
+			}
+			return FieldProjections.update(message.get("data"));
+		});
 
-		} catch (JsonSyntaxException e) {
-			LOGGER.error("JSON parsing error: " + e.getMessage());
-			LOGGER.error("Problematic message: " + message);
-		} catch (Exception e) {
-			LOGGER.error("Error handling message: " + e.getMessage());
-			LOGGER.error("Message content: " + message);
+		MessageHandlers.register("handshake", MessageHandlers.Runs.FAST_LANE, 0, context -> {
+			InboundMessage message = context.getMessage();
+			if (!message.has("data") || !message.get("data").isJsonObject()) {
+				throw new IllegalArgumentException("Missing or invalid 'data' field for handshake");
+			}
+			JsonObject negotiated = handleHandshake(message.get("data").getAsJsonObject());
+			boolean binaryRequested = negotiated.getAsJsonObject("wire").get("protocol").getAsString().equals("binary");
+			// The handshake response itself still goes out as JSON
+			context.afterResponse(() -> BinaryCodec.setEnabled(binaryRequested));
+			return negotiated.toString();
+		});
+
+		MessageHandlers.register("metrics", MessageHandlers.Runs.FAST_LANE, 0, context -> {
+			JsonObject metrics = new JsonObject();
+			metrics.add("outbound", OutboundQueue.getMetrics());
+			metrics.add("spool", EventSpool.getMetrics());
+			metrics.add("requests", RequestExecutor.getMetrics());
+			metrics.add("serverTasks", ServerTaskQueue.getMetrics());
+			metrics.add("inFlight", InFlightRequests.getMetrics());
+			metrics.add("inboundFlow", InboundFlowControl.getMetrics());
+			metrics.add("heartbeat", Heartbeat.getMetrics());
+			metrics.add("replayCache", ResponseCache.getMetrics());
+			metrics.add("handlers", MessageHandlers.getMetrics());
+			return metrics.toString();
+		});
+
+		FileSystemHandler.registerHandlers();
+		BlueMapIntegration.registerHandlers();
+		DynamicCommandHandler.registerHandlers();
+	}
+
+	// The writer thread serializes sends, so responses never overlap an event frame.
+	// The handshake response always goes out as text, a protocol switch applies after it.
+	private static void sendResponse(String type, JsonObject response) {
+		if (webSocket != null) {
+			if (BinaryCodec.isEnabled() && !type.equals("handshake")) {
+				OutboundQueue.offerResponse(BinaryCodec.encode(response));
+			} else {
+				OutboundQueue.offerResponse(response.toString());
+			}
+		}
+	}
+
+	/**
+	 * Negotiates optional protocol features with the backend. Anything not requested stays at its default.
+	 */
+	private JsonObject handleHandshake(JsonObject options) {
+		JsonObject negotiated = new JsonObject();
+		negotiated.addProperty("version", server != null ? server.getVersion() : "unknown");
+		negotiated.add("batching", EventBatcher.configure(options));
+		negotiated.add("wire", BinaryCodec.configure(options));
+		negotiated.addProperty("telemetryChannel", config.isTelemetryChannelEnabled());
+		if (options.has("projections")) {
+			FieldProjections.update(options.get("projections"));
+			negotiated.add("projections", FieldProjections.getProjections());
 		}
+		return negotiated;
 	}
 
 	private String executeCommand(String command) {
@@ -383,6 +647,40 @@ public class Denorite implements ModInitializer {
 		return "Error: Server is null";
 	}
 
+	/**
+	 * Queues every command of a batch on the server thread in order. They share the per-tick budget
+	 * with other server tasks, so a large batch is spread over as many ticks as it needs.
+	 * Completes with a JSON array holding each command's output at the same index.
+	 */
+	private CompletableFuture<String> executeCommandBatch(JsonArray commands) {
+		List<String> batch = new ArrayList<>(commands.size());
+		for (JsonElement command : commands) {
+			if (!command.isJsonPrimitive() || !command.getAsJsonPrimitive().isString()) {
+				throw new IllegalArgumentException("command_batch entries must be strings");
+			}
+			batch.add(command.getAsString());
+		}
+
+		List<CompletableFuture<String>> outputs = new ArrayList<>(batch.size());
+		for (String command : batch) {
+			outputs.add(ServerTaskQueue.submit(() -> executeCommand(command)));
+		}
+		CompletableFuture<String> combined = CompletableFuture.allOf(outputs.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+			JsonArray results = new JsonArray(outputs.size());
+			for (CompletableFuture<String> output : outputs) {
+				results.add(output.join());
+			}
+			return results.toString();
+		});
+		// A cancelled or timed out batch skips the commands that have not run yet
+		combined.whenComplete((result, error) -> {
+			if (error instanceof CancellationException) {
+				outputs.forEach(output -> output.cancel(false));
+			}
+		});
+		return combined;
+	}
+
 	/**
 	 * Execute a command using ServerWorld's command execution
 	 */
@@ -417,85 +715,126 @@ public class Denorite implements ModInitializer {
 	}
 
 	private void registerServerEvents() {
-		ServerLifecycleEvents.SERVER_STARTING.register(server -> sendToTypeScript("server_starting", null));
-		ServerLifecycleEvents.SERVER_STARTED.register(server -> sendToTypeScript("server_started", null));
-		ServerLifecycleEvents.SERVER_STOPPING.register(server -> sendToTypeScript("server_stopping", null));
-		ServerLifecycleEvents.SERVER_STOPPED.register(server -> sendToTypeScript("server_stopped", null));
-		ServerTickEvents.START_SERVER_TICK.register((server) -> sendToTypeScript("server_tick_start", null));
-		ServerTickEvents.END_SERVER_TICK.register((server) -> sendToTypeScript("server_tick_end", null));
+		ServerLifecycleEvents.SERVER_STARTING.register(server -> sendToTypeScript(EventType.SERVER_STARTING));
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> sendToTypeScript(EventType.SERVER_STARTED));
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> sendToTypeScript(EventType.SERVER_STOPPING));
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> sendToTypeScript(EventType.SERVER_STOPPED));
+		// Raw tick events can be switched off in favour of tick_stats
+		if (config.isTickEventsEnabled()) {
+			ServerTickEvents.START_SERVER_TICK.register((server) -> {
+				if (wants(EventType.SERVER_TICK_START)) {
+					sendToTypeScript(EventType.SERVER_TICK_START);
+				}
+			});
+			ServerTickEvents.END_SERVER_TICK.register((server) -> {
+				if (wants(EventType.SERVER_TICK_END)) {
+					sendToTypeScript(EventType.SERVER_TICK_END);
+				}
+			});
+		}
 
 		ServerLifecycleEvents.BEFORE_SAVE.register((server, srt, str) ->
-				sendToTypeScript("server_before_save", null));
+				sendToTypeScript(EventType.SERVER_BEFORE_SAVE));
 
 		ServerLifecycleEvents.AFTER_SAVE.register((server, srt, str) ->
-				sendToTypeScript("server_after_save", null));
+				sendToTypeScript(EventType.SERVER_AFTER_SAVE));
 
 		ServerLifecycleEvents.START_DATA_PACK_RELOAD.register((server, resourceManager) ->
-				sendToTypeScript("data_pack_reload_start", null));
+				sendToTypeScript(EventType.DATA_PACK_RELOAD_START));
 
 		ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
-			JsonObject data = new JsonObject();
-			data.addProperty("success", success);
-			sendToTypeScript("data_pack_reload_end", data);
+			if (!wants(EventType.DATA_PACK_RELOAD_END)) {
+				return;
+			}
+			sendToTypeScript(EventType.DATA_PACK_RELOAD_END, out -> out.field("success", success));
 		});
 
 		ServerLifecycleEvents.SYNC_DATA_PACK_CONTENTS.register((player, joined) -> {
-			JsonObject data = new JsonObject();
-			data.addProperty("playerId", player.getUuidAsString());
-			data.addProperty("playerName", player.getName().getString());
-			data.addProperty("joined", joined);
-			sendToTypeScript("data_pack_sync", data);
+			if (!wants(EventType.DATA_PACK_SYNC)) {
+				return;
+			}
+			sendToTypeScript(EventType.DATA_PACK_SYNC, out -> out
+					.field("playerId", player.getUuidAsString())
+					.field("playerName", player.getGameProfile().getName())
+					.field("joined", joined));
 		});
 ;	}
 
 	private void registerPlayerEvents() {
 		ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
-			sendToTypeScript("player_respawned", serializePlayerRespawn(oldPlayer, newPlayer, alive));
+			if (wants(EventType.PLAYER_RESPAWNED)) {
+				sendToTypeScript(EventType.PLAYER_RESPAWNED, out -> serializePlayerRespawn(out, oldPlayer, newPlayer, alive));
+			}
 		});
 
-		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) ->
-				sendToTypeScript("player_joined", serializePlayer(handler.getPlayer())));
-		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
-				sendToTypeScript("player_left", serializePlayer(handler.getPlayer())));
+		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+			if (wants(EventType.PLAYER_JOINED)) {
+				sendToTypeScript(EventType.PLAYER_JOINED, out -> serializePlayer(out, handler.getPlayer()));
+			}
+		});
+		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+			if (wants(EventType.PLAYER_LEFT)) {
+				sendToTypeScript(EventType.PLAYER_LEFT, out -> serializePlayer(out, handler.getPlayer()));
+			}
+		});
 
 		ServerPlayConnectionEvents.INIT.register((handler, server) -> {
-			JsonObject data = new JsonObject();
-			data.addProperty("playerId", handler.player.getUuidAsString());
-			data.addProperty("playerName", handler.player.getName().getString());
-			sendToTypeScript("player_connection_init", data);
+			if (!wants(EventType.PLAYER_CONNECTION_INIT)) {
+				return;
+			}
+			sendToTypeScript(EventType.PLAYER_CONNECTION_INIT, out -> out
+					.field("playerId", handler.player.getUuidAsString())
+					.field("playerName", handler.player.getGameProfile().getName()));
 		});
 
 		PlayerBlockBreakEvents.BEFORE.register((world, player, pos, state, blockEntity) -> {
-			sendToTypeScript("player_break_block_before", serializeBlockEvent((ServerPlayerEntity)player, pos, state));
+			if (wants(EventType.PLAYER_BREAK_BLOCK_BEFORE)) {
+				sendToTypeScript(EventType.PLAYER_BREAK_BLOCK_BEFORE, out -> serializeBlockEvent(out, (ServerPlayerEntity)player, pos, state));
+			}
 			return true;
 		});
 
 		PlayerBlockBreakEvents.CANCELED.register((world, player, pos, state, blockEntity) -> {
-			sendToTypeScript("player_break_block_canceled", serializeBlockEvent((ServerPlayerEntity)player, pos, state));
+			if (wants(EventType.PLAYER_BREAK_BLOCK_CANCELED)) {
+				sendToTypeScript(EventType.PLAYER_BREAK_BLOCK_CANCELED, out -> serializeBlockEvent(out, (ServerPlayerEntity)player, pos, state));
+			}
 		});
 
 		ServerEntityCombatEvents.AFTER_KILLED_OTHER_ENTITY.register((world, entity, killedEntity) -> {
 			if (killedEntity instanceof ServerPlayerEntity) {
-				sendToTypeScript("player_death", serializePlayerDeath((ServerPlayerEntity) killedEntity, killedEntity.getRecentDamageSource()));
-			} else {
-				sendToTypeScript("entity_death", serializeEntityDeath(entity, killedEntity));
+				if (wants(EventType.PLAYER_DEATH)) {
+					sendToTypeScript(EventType.PLAYER_DEATH, out -> serializePlayerDeath(out, (ServerPlayerEntity) killedEntity, killedEntity.getRecentDamageSource()));
+				}
+			} else if (wants(EventType.ENTITY_DEATH)) {
+				sendToTypeScript(EventType.ENTITY_DEATH, out -> serializeEntityDeath(out, entity, killedEntity));
 			}
 		});
 
-		PlayerBlockBreakEvents.AFTER.register((world, player, pos, state, blockEntity) ->
-				sendToTypeScript("player_break_block_after", serializeBlockEvent((ServerPlayerEntity)player, pos, state)));
+		PlayerBlockBreakEvents.AFTER.register((world, player, pos, state, blockEntity) -> {
+			if (wants(EventType.PLAYER_BREAK_BLOCK_AFTER)) {
+				sendToTypeScript(EventType.PLAYER_BREAK_BLOCK_AFTER, out -> serializeBlockEvent(out, (ServerPlayerEntity)player, pos, state));
+			}
+		});
 
 		AttackBlockCallback.EVENT.register((player, world, hand, pos, direction) -> {
-			sendToTypeScript("player_attack_block", serializeBlockEvent((ServerPlayerEntity)player, pos, world.getBlockState(pos)));
+			if (allowed(EventType.PLAYER_ATTACK_BLOCK, player)) {
+				sendToTypeScript(EventType.PLAYER_ATTACK_BLOCK, out -> serializeBlockEvent(out, (ServerPlayerEntity)player, pos, world.getBlockState(pos)));
+			}
 			return ActionResult.PASS;
 		});
 
 		UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
-			sendToTypeScript("player_use_block", serializeBlockEvent((ServerPlayerEntity)player, hitResult.getBlockPos(), world.getBlockState(hitResult.getBlockPos())));
+			if (allowed(EventType.PLAYER_USE_BLOCK, player)) {
+				sendToTypeScript(EventType.PLAYER_USE_BLOCK, out -> serializeBlockEvent(out, (ServerPlayerEntity)player, hitResult.getBlockPos(), world.getBlockState(hitResult.getBlockPos())));
+			}
 			return ActionResult.PASS;
 		});
 
 		UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
+			if (!wants(EventType.CONTAINER_INTERACTION_START) && !wants(EventType.CONTAINER_INTERACTION_END)) {
+				return ActionResult.PASS;
+			}
+
 			Block block = world.getBlockState(hitResult.getBlockPos()).getBlock();
 			if (!shouldBeLogged(block)) {
 				return ActionResult.PASS;
@@ -505,89 +844,127 @@ public class Denorite implements ModInitializer {
                 BlockPos pos = hitResult.getBlockPos();
 				lastInteractedBlock = block;
 				lastInteractedPos = pos;
-				sendToTypeScript("container_interaction_start", serializeContainerInteraction(serverPlayer, block, pos));
+				if (allowed(EventType.CONTAINER_INTERACTION_START, serverPlayer)) {
+					sendToTypeScript(EventType.CONTAINER_INTERACTION_START, out -> serializeContainerInteraction(out, serverPlayer, block, pos));
+				}
 			}
 
 			return ActionResult.PASS;
 		});
 
 		UseItemCallback.EVENT.register((player, world, hand) -> {
-			sendToTypeScript("player_use_item", serializeItemEvent((ServerPlayerEntity)player, player.getStackInHand(hand)));
+			if (allowed(EventType.PLAYER_USE_ITEM, player)) {
+				sendToTypeScript(EventType.PLAYER_USE_ITEM, out -> serializeItemEvent(out, (ServerPlayerEntity)player, player.getStackInHand(hand)));
+			}
 			return TypedActionResult.pass(player.getStackInHand(hand));
 		});
 
 		AttackEntityCallback.EVENT.register((player, world, hand, entity, hitResult) -> {
-			sendToTypeScript("player_attack_entity", serializeEntityEvent((ServerPlayerEntity)player, entity));
+			if (allowed(EventType.PLAYER_ATTACK_ENTITY, player)) {
+				sendToTypeScript(EventType.PLAYER_ATTACK_ENTITY, out -> serializeEntityEvent(out, (ServerPlayerEntity)player, entity));
+			}
 			return ActionResult.PASS;
 		});
 
 		UseEntityCallback.EVENT.register((player, world, hand, entity, hitResult) -> {
-			sendToTypeScript("player_use_entity", serializeEntityEvent((ServerPlayerEntity)player, entity));
+			if (allowed(EventType.PLAYER_USE_ENTITY, player)) {
+				sendToTypeScript(EventType.PLAYER_USE_ENTITY, out -> serializeEntityEvent(out, (ServerPlayerEntity)player, entity));
+			}
 			return ActionResult.PASS;
 		});
 	}
 
 	private void registerEntityEvents() {
 		EntityElytraEvents.ALLOW.register((entity) -> {
-			sendToTypeScript("entity_elytra_check", serializeEntity(entity));
+			if (wants(EventType.ENTITY_ELYTRA_CHECK)) {
+				sendToTypeScript(EventType.ENTITY_ELYTRA_CHECK, out -> serializeEntity(out, entity));
+			}
 			return true;
 		});
 
 		ServerEntityCombatEvents.AFTER_KILLED_OTHER_ENTITY.register((world, entity, killedEntity) -> {
 			if (killedEntity instanceof ServerPlayerEntity) {
-				sendToTypeScript("player_death", serializePlayerDeath((ServerPlayerEntity) killedEntity, killedEntity.getRecentDamageSource()));
-			} else if (killedEntity instanceof LivingEntity) {
-				sendToTypeScript("entity_death", serializeEntityDeath(entity, (LivingEntity) killedEntity));
+				if (wants(EventType.PLAYER_DEATH)) {
+					sendToTypeScript(EventType.PLAYER_DEATH, out -> serializePlayerDeath(out, (ServerPlayerEntity) killedEntity, killedEntity.getRecentDamageSource()));
+				}
+			} else if (killedEntity instanceof LivingEntity && wants(EventType.ENTITY_DEATH)) {
+				sendToTypeScript(EventType.ENTITY_DEATH, out -> serializeEntityDeath(out, entity, (LivingEntity) killedEntity));
 			}
 		});
 
 		ServerEntityWorldChangeEvents.AFTER_ENTITY_CHANGE_WORLD.register((originalEntity, newEntity, origin, destination) -> {
-			sendToTypeScript("entity_changed_world", serializeEntityWorldChange(originalEntity, newEntity, origin, destination));
+			if (wants(EventType.ENTITY_CHANGED_WORLD)) {
+				sendToTypeScript(EventType.ENTITY_CHANGED_WORLD, out -> serializeEntityWorldChange(out, originalEntity, newEntity, origin, destination));
+			}
 		});
 
 		EntitySleepEvents.START_SLEEPING.register((entity, sleepingPos) -> {
-			sendToTypeScript("entity_start_sleeping", serializeEntitySleep(entity, sleepingPos));
+			if (wants(EventType.ENTITY_START_SLEEPING)) {
+				sendToTypeScript(EventType.ENTITY_START_SLEEPING, out -> serializeEntitySleep(out, entity, sleepingPos));
+			}
 		});
 
 		EntitySleepEvents.STOP_SLEEPING.register((entity, sleepingPos) -> {
-			sendToTypeScript("entity_stop_sleeping", serializeEntitySleep(entity, sleepingPos));
+			if (wants(EventType.ENTITY_STOP_SLEEPING)) {
+				sendToTypeScript(EventType.ENTITY_STOP_SLEEPING, out -> serializeEntitySleep(out, entity, sleepingPos));
+			}
 		});
 	}
 
 	private void registerWorldEvents() {
-		ServerTickEvents.START_WORLD_TICK.register((world) ->
-				sendToTypeScript("world_tick_start", serializeWorld(world)));
+		if (config.isTickEventsEnabled()) {
+			ServerTickEvents.START_WORLD_TICK.register((world) -> {
+				if (wants(EventType.WORLD_TICK_START)) {
+					sendToTypeScript(EventType.WORLD_TICK_START, out -> serializeWorld(out, world));
+				}
+			});
 
-		ServerTickEvents.END_WORLD_TICK.register((world) ->
-				sendToTypeScript("world_tick_end", serializeWorld(world)));
+			ServerTickEvents.END_WORLD_TICK.register((world) -> {
+				if (wants(EventType.WORLD_TICK_END)) {
+					sendToTypeScript(EventType.WORLD_TICK_END, out -> serializeWorld(out, world));
+				}
+			});
+		}
 
-		ServerWorldEvents.LOAD.register((server, world) ->
-				sendToTypeScript("world_load", serializeWorld(world)));
+		ServerWorldEvents.LOAD.register((server, world) -> {
+			if (wants(EventType.WORLD_LOAD)) {
+				sendToTypeScript(EventType.WORLD_LOAD, out -> serializeWorld(out, world));
+			}
+		});
 
-		ServerWorldEvents.UNLOAD.register((server, world) ->
-				sendToTypeScript("world_unload", serializeWorld(world)));
+		ServerWorldEvents.UNLOAD.register((server, world) -> {
+			if (wants(EventType.WORLD_UNLOAD)) {
+				sendToTypeScript(EventType.WORLD_UNLOAD, out -> serializeWorld(out, world));
+			}
+		});
 	}
 
 	private void registerChatEvents() {
 		ServerMessageEvents.CHAT_MESSAGE.register((message, sender, params) -> {
-			sendToTypeScript("player_chat", serializeChat(sender, message.getContent().getString()));
+			if (wants(EventType.PLAYER_CHAT)) {
+				sendToTypeScript(EventType.PLAYER_CHAT, out -> serializeChat(out, sender, message.getContent().getString()));
+			}
 		});
 
 		ServerMessageEvents.COMMAND_MESSAGE.register((message, sender, params) -> {
-			JsonObject data = new JsonObject();
-			if (sender.getPlayer() != null) {
-				data.addProperty("playerId", sender.getPlayer().getUuidAsString());
-				data.addProperty("playerName", sender.getPlayer().getName().getString());
+			if (!wants(EventType.COMMAND_MESSAGE)) {
+				return;
 			}
-			data.addProperty("message", message.getContent().getString());
-			sendToTypeScript("command_message", data);
+			sendToTypeScript(EventType.COMMAND_MESSAGE, out -> {
+				ServerPlayerEntity player = sender.getPlayer();
+				if (player != null) {
+					out.field("playerId", player.getUuidAsString());
+					out.field("playerName", player.getGameProfile().getName());
+				}
+				out.field("message", message.getContent().getString());
+			});
 		});
 
 //		ServerMessageEvents.GAME_MESSAGE.register((message, overlay) -> {
 //			if (message instanceof Text text) {
 //				JsonObject data = new JsonObject();
 //				data.addProperty("message", text.getString());
-//				sendToTypeScript("game_message", data);
+//				sendToTypeScript(EventType.GAME_MESSAGE, data);
 //			}
 //		});
 	}
@@ -595,16 +972,18 @@ public class Denorite implements ModInitializer {
 	private void registerProjectileEvents() {
 		// Track arrow hits and other projectiles
 		ServerEntityCombatEvents.AFTER_KILLED_OTHER_ENTITY.register((world, entity, killed) -> {
-			if (entity instanceof ProjectileEntity projectile) {
-				Entity owner = projectile.getOwner();
-				JsonObject data = new JsonObject();
-				data.addProperty("projectileType", projectile.getType().toString());
-				if (owner != null) {
-					data.addProperty("ownerId", owner.getUuidAsString());
-					data.addProperty("ownerType", owner.getType().toString());
-				}
-				data.add("target", serializeEntity(killed));
-				sendToTypeScript("projectile_kill", data);
+			if (entity instanceof ProjectileEntity projectile && wants(EventType.PROJECTILE_KILL)) {
+				sendToTypeScript(EventType.PROJECTILE_KILL, out -> {
+					Entity owner = projectile.getOwner();
+					out.field("projectileType", InternedNames.of(projectile.getType()));
+					if (owner != null) {
+						out.field("ownerId", owner.getUuidAsString());
+						out.field("ownerType", InternedNames.of(owner.getType()));
+					}
+					out.beginObject("target");
+					serializeEntity(out, killed);
+					out.endObject();
+				});
 			}
 		});
 	}
@@ -613,10 +992,13 @@ public class Denorite implements ModInitializer {
 	private void registerAdvancementEvents() {
 		// Track advancement progress
 		ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
+			if (!wants(EventType.ADVANCEMENT_COMPLETE)) {
+				return;
+			}
 			for (AdvancementEntry advancement : server.getAdvancementLoader().getAdvancements()) {
 				AdvancementProgress progress = newPlayer.getAdvancementTracker().getProgress(advancement);
 				if (progress.isDone()) {
-					sendToTypeScript("advancement_complete", serializeAdvancement(newPlayer, advancement));
+					sendToTypeScript(EventType.ADVANCEMENT_COMPLETE, out -> serializeAdvancement(out, newPlayer, advancement));
 				}
 			}
 		});
@@ -625,14 +1007,16 @@ public class Denorite implements ModInitializer {
 	private void registerExperienceEvents() {
 		// Track XP changes
 		ServerTickEvents.END_SERVER_TICK.register(server -> {
+			if (!wants(EventType.EXPERIENCE_UPDATE)) {
+				return;
+			}
 			for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
 				int currentXp = player.experienceLevel;
 				int currentProgress = (int)(player.experienceProgress * 100);
-				JsonObject data = new JsonObject();
-				data.addProperty("playerId", player.getUuidAsString());
-				data.addProperty("level", currentXp);
-				data.addProperty("progress", currentProgress);
-				sendToTypeScript("experience_update", data);
+				sendToTypeScript(EventType.EXPERIENCE_UPDATE, out -> out
+						.field("playerId", player.getUuidAsString())
+						.field("level", currentXp)
+						.field("progress", currentProgress));
 			}
 		});
 	}
@@ -640,12 +1024,11 @@ public class Denorite implements ModInitializer {
 	private void registerTradeEvents() {
 		// Track villager trades
 		UseEntityCallback.EVENT.register((player, world, hand, entity, hitResult) -> {
-			if (entity instanceof net.minecraft.village.Merchant) {
-				JsonObject data = new JsonObject();
-				data.addProperty("playerId", player.getUuidAsString());
-				data.addProperty("merchantId", entity.getUuidAsString());
-				data.addProperty("merchantType", entity.getType().toString());
-				sendToTypeScript("merchant_interaction", data);
+			if (entity instanceof net.minecraft.village.Merchant && allowed(EventType.MERCHANT_INTERACTION, player)) {
+				sendToTypeScript(EventType.MERCHANT_INTERACTION, out -> out
+						.field("playerId", player.getUuidAsString())
+						.field("merchantId", entity.getUuidAsString())
+						.field("merchantType", InternedNames.of(entity.getType())));
 			}
 			return ActionResult.PASS;
 		});
@@ -654,40 +1037,40 @@ public class Denorite implements ModInitializer {
 	private void registerWeatherEvents() {
 		// Track weather changes
 		ServerTickEvents.START_WORLD_TICK.register(world -> {
-			JsonObject data = new JsonObject();
-			data.addProperty("dimension", world.getRegistryKey().getValue().toString());
-			data.addProperty("isRaining", world.isRaining());
-			data.addProperty("isThundering", world.isThundering());
-			data.addProperty("rainGradient", world.getRainGradient(1.0F));
-			sendToTypeScript("weather_update", data);
+			if (!wants(EventType.WEATHER_UPDATE)) {
+				return;
+			}
+			sendToTypeScript(EventType.WEATHER_UPDATE, out -> out
+					.field("dimension", InternedNames.dimension(world))
+					.field("isRaining", world.isRaining())
+					.field("isThundering", world.isThundering())
+					.field("rainGradient", world.getRainGradient(1.0F)));
 		});
 	}
 
 	private void registerRedstoneEvents() {
 		// Track redstone signal changes
 		AttackBlockCallback.EVENT.register((player, world, hand, pos, direction) -> {
+			if (!wants(EventType.REDSTONE_UPDATE)) {
+				return ActionResult.PASS;
+			}
 			BlockState state = world.getBlockState(pos);
-			if (state.getBlock() instanceof RedstoneWireBlock ||
-					state.getBlock() instanceof AbstractRedstoneGateBlock) {
-				JsonObject data = new JsonObject();
-				data.addProperty("x", pos.getX());
-				data.addProperty("y", pos.getY());
-				data.addProperty("z", pos.getZ());
-				data.addProperty("power", state.get(RedstoneWireBlock.POWER));
-				sendToTypeScript("redstone_update", data);
+			if ((state.getBlock() instanceof RedstoneWireBlock ||
+					state.getBlock() instanceof AbstractRedstoneGateBlock) && RateLimiter.tryAcquire(player, EventType.REDSTONE_UPDATE)) {
+				sendToTypeScript(EventType.REDSTONE_UPDATE, out -> out
+						.field("x", pos.getX())
+						.field("y", pos.getY())
+						.field("z", pos.getZ())
+						.field("power", state.get(RedstoneWireBlock.POWER)));
 			}
 			return ActionResult.PASS;
 		});
 	}
 
 	// New serialization helpers
-	private JsonObject serializeAdvancement(ServerPlayerEntity player, AdvancementEntry advancement) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("advancementId", advancement.id().toString());
-		data.addProperty("title", advancement.value().display().toString());
-		return data;
+	private void serializeAdvancement(EventWriter out, ServerPlayerEntity player, AdvancementEntry advancement) {
+		EventFields.advancement(out, player.getUuidAsString(), player.getGameProfile().getName(), advancement.id().toString(),
+				() -> advancement.value().display().toString());
 	}
 
 
@@ -695,230 +1078,156 @@ public class Denorite implements ModInitializer {
 		return text != null ? text.getString() : "";
 	}
 
-	// Serialization methods
+	// Serialization methods, each reads one event's values from the game and writes them in the layout from EventFields
 
-	private static JsonObject serializeContainerInteraction(ServerPlayerEntity player, Block block, BlockPos pos) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("blockType", block.toString());
-		data.addProperty("x", pos.getX());
-		data.addProperty("y", pos.getY());
-		data.addProperty("z", pos.getZ());
-		data.addProperty("dimension", player.getWorld().getRegistryKey().getValue().toString());
-		return data;
-	}
+	private static final EventFields.EntityReader<Entity> ENTITIES = new EventFields.EntityReader<>() {
+		@Override
+		public String id(Entity entity) {
+			return entity.getUuidAsString();
+		}
 
-	private JsonObject serializePlayer(ServerPlayerEntity player) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("x", player.getX());
-		data.addProperty("y", player.getY());
-		data.addProperty("z", player.getZ());
-		data.addProperty("dimension", player.getWorld().getRegistryKey().getValue().toString());
-		return data;
-	}
+		@Override
+		public String type(Entity entity) {
+			return InternedNames.of(entity.getType());
+		}
 
-	private JsonObject serializePlayerDeath(ServerPlayerEntity player, DamageSource recentDamageSource) {
-		JsonObject data = serializePlayer(player);
-		DamageTracker damageTracker = player.getDamageTracker();
-		Text deathMessage = damageTracker.getDeathMessage();
+		@Override
+		public double x(Entity entity) {
+			return entity.getX();
+		}
 
-		if (deathMessage != null) {
-			data.addProperty("deathMessage", deathMessage.getString());
+		@Override
+		public double y(Entity entity) {
+			return entity.getY();
 		}
 
-		Entity attacker = player.getAttacker();
-		if (attacker != null) {
-			data.addProperty("attackerId", attacker.getUuidAsString());
-			data.addProperty("attackerType", attacker.getType().toString());
+		@Override
+		public double z(Entity entity) {
+			return entity.getZ();
 		}
+	};
 
-		return data;
-	}
+	private static final EventFields.StackReader<ItemStack> STACKS = new EventFields.StackReader<>() {
+		@Override
+		public boolean isEmpty(ItemStack stack) {
+			return stack.isEmpty();
+		}
 
-	private JsonObject serializeEntityDeath(Entity killer, LivingEntity killedEntity) {
-		JsonObject data = new JsonObject();
-		data.add("killedEntity", serializeEntity(killedEntity));
-		if (killer != null) {
-			data.add("killer", serializeEntity(killer));
+		@Override
+		public String item(ItemStack stack) {
+			return InternedNames.of(stack.getItem());
 		}
 
-		DamageTracker damageTracker = killedEntity.getDamageTracker();
-		Text deathMessage = damageTracker.getDeathMessage();
+		@Override
+		public int count(ItemStack stack) {
+			return stack.getCount();
+		}
 
-		if (deathMessage != null) {
-			data.addProperty("deathMessage", deathMessage.getString());
+		@Override
+		public int damage(ItemStack stack) {
+			return stack.getDamage();
 		}
+	};
 
-		return data;
+	private static String deathMessage(LivingEntity entity) {
+		Text deathMessage = entity.getDamageTracker().getDeathMessage();
+		return deathMessage != null ? deathMessage.getString() : null;
 	}
 
-	private JsonObject serializeWorld(World world) {
-		JsonObject data = new JsonObject();
-		data.addProperty("dimensionKey", world.getRegistryKey().getValue().toString());
-		data.addProperty("time", world.getTime());
-		data.addProperty("difficultyLevel", world.getDifficulty().getName());
-		return data;
+	private static void serializeContainerInteraction(EventWriter out, ServerPlayerEntity player, Block block, BlockPos pos) {
+		EventFields.containerInteraction(out, player.getUuidAsString(), player.getGameProfile().getName(), InternedNames.of(block),
+				pos.getX(), pos.getY(), pos.getZ(), InternedNames.dimension(player.getWorld()));
 	}
 
-	private JsonObject serializeChunk(World world, Chunk chunk) {
-		JsonObject data = new JsonObject();
-		data.addProperty("dimensionKey", world.getRegistryKey().getValue().toString());
-		data.addProperty("chunkX", chunk.getPos().x);
-		data.addProperty("chunkZ", chunk.getPos().z);
-		return data;
+	private void serializePlayer(EventWriter out, ServerPlayerEntity player) {
+		EventFields.player(out, player.getUuidAsString(), player.getGameProfile().getName(),
+				player.getX(), player.getY(), player.getZ(), InternedNames.dimension(player.getWorld()));
 	}
 
-	private JsonObject serializeEntity(Entity entity) {
-		JsonObject data = new JsonObject();
-		data.addProperty("entityId", entity.getUuidAsString());
-		data.addProperty("entityType", entity.getType().toString());
-		data.addProperty("x", entity.getX());
-		data.addProperty("y", entity.getY());
-		data.addProperty("z", entity.getZ());
-		return data;
+	private void serializePlayerDeath(EventWriter out, ServerPlayerEntity player, DamageSource recentDamageSource) {
+		EventFields.playerDeath(out, player.getUuidAsString(), player.getGameProfile().getName(),
+				player.getX(), player.getY(), player.getZ(), InternedNames.dimension(player.getWorld()),
+				() -> deathMessage(player), player::getAttacker, ENTITIES);
 	}
 
-	private JsonObject serializeEntityKill(Entity killer, Entity victim) {
-		JsonObject data = new JsonObject();
-		data.add("killer", serializeEntity(killer));
-		data.add("victim", serializeEntity(victim));
-		return data;
+	private void serializeEntityDeath(EventWriter out, Entity killer, LivingEntity killedEntity) {
+		EventFields.entityDeath(out, killedEntity, killer, ENTITIES, () -> deathMessage(killedEntity));
 	}
 
-	private JsonObject serializeItemStack(ItemStack itemStack) {
-		JsonObject data = new JsonObject();
-		data.addProperty("item", itemStack.getItem().toString());
-		data.addProperty("count", itemStack.getCount());
-		data.addProperty("damage", itemStack.getDamage());
-		return data;
+	private void serializeWorld(EventWriter out, World world) {
+		EventFields.world(out, InternedNames.dimension(world), world.getTime(), world.getDifficulty().getName());
 	}
 
-	private JsonObject serializeBlockEvent(ServerPlayerEntity player, BlockPos pos, BlockState state) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("x", pos.getX());
-		data.addProperty("y", pos.getY());
-		data.addProperty("z", pos.getZ());
-		data.addProperty("block", state.getBlock().toString());
-		return data;
+	private void serializeChunk(EventWriter out, World world, Chunk chunk) {
+		EventFields.chunk(out, InternedNames.dimension(world), chunk.getPos().x, chunk.getPos().z);
 	}
 
-	private JsonObject serializeEntityEvent(ServerPlayerEntity player, Entity entity) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("entityId", entity.getUuidAsString());
-		data.addProperty("entityType", entity.getType().toString());
-		return data;
+	private void serializeEntity(EventWriter out, Entity entity) {
+		EventFields.entity(out, entity, ENTITIES);
 	}
 
-	private JsonObject serializeItemEvent(ServerPlayerEntity player, ItemStack itemStack) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("item", itemStack.getItem().toString());
-		data.addProperty("count", itemStack.getCount());
-		return data;
+	private void serializeEntityKill(EventWriter out, Entity killer, Entity victim) {
+		EventFields.entityKill(out, killer, victim, ENTITIES);
 	}
 
-	private JsonObject serializeChat(ServerPlayerEntity player, String message) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("message", message);
-		return data;
+	private void serializeItemStack(EventWriter out, ItemStack itemStack) {
+		EventFields.itemStack(out, itemStack, STACKS);
 	}
 
-	private JsonObject serializeCommand(ServerPlayerEntity player, String command) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("command", command);
-		return data;
+	private void serializeBlockEvent(EventWriter out, ServerPlayerEntity player, BlockPos pos, BlockState state) {
+		EventFields.blockEvent(out, player.getUuidAsString(), pos.getX(), pos.getY(), pos.getZ(), InternedNames.of(state.getBlock()));
 	}
 
-	private JsonObject serializeCommandMessage(Text message, ServerCommandSource source) {
-		JsonObject data = new JsonObject();
+	private void serializeEntityEvent(EventWriter out, ServerPlayerEntity player, Entity entity) {
+		EventFields.entityEvent(out, player.getUuidAsString(), entity, ENTITIES);
+	}
+
+	private void serializeItemEvent(EventWriter out, ServerPlayerEntity player, ItemStack itemStack) {
+		EventFields.itemEvent(out, player.getUuidAsString(), InternedNames.of(itemStack.getItem()), itemStack.getCount());
+	}
+
+	private void serializeChat(EventWriter out, ServerPlayerEntity player, String message) {
+		EventFields.chat(out, player.getUuidAsString(), player.getGameProfile().getName(), message);
+	}
+
+	private void serializeCommand(EventWriter out, ServerPlayerEntity player, String command) {
+		EventFields.command(out, player.getUuidAsString(), player.getGameProfile().getName(), command);
+	}
+
+	private void serializeCommandMessage(EventWriter out, Text message, ServerCommandSource source) {
 		ServerPlayerEntity player = source.getPlayer();
-		if (player != null) {
-			data.addProperty("playerId", player.getUuidAsString());
-			data.addProperty("playerName", player.getName().getString());
-		}
-		data.addProperty("message", message.getString());
-		data.addProperty("command", source.getName());
-		return data;
-	}
-
-	private JsonObject serializeAdvancementCriterion(ServerPlayerEntity player, AdvancementEntry advancement, String criterion) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("advancementId", advancement.id().toString());
-		data.addProperty("criterion", criterion);
-		return data;
-	}
-
-	private JsonObject serializePlayerRespawn(ServerPlayerEntity oldPlayer, ServerPlayerEntity newPlayer, boolean alive) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", newPlayer.getUuidAsString());
-		data.addProperty("playerName", newPlayer.getName().getString());
-		data.addProperty("alive", alive);
-		data.addProperty("x", newPlayer.getX());
-		data.addProperty("y", newPlayer.getY());
-		data.addProperty("z", newPlayer.getZ());
-		data.addProperty("dimension", newPlayer.getWorld().getRegistryKey().getValue().toString());
-		return data;
-	}
-
-	private JsonObject serializeEntityWorldChange(Entity originalEntity, Entity newEntity, ServerWorld origin, ServerWorld destination) {
-		JsonObject data = new JsonObject();
-		data.addProperty("entityId", newEntity.getUuidAsString());
-		data.addProperty("entityType", newEntity.getType().toString());
-		data.addProperty("originalWorld", origin.getRegistryKey().getValue().toString());
-		data.addProperty("newWorld", destination.getRegistryKey().getValue().toString());
-		data.addProperty("x", newEntity.getX());
-		data.addProperty("y", newEntity.getY());
-		data.addProperty("z", newEntity.getZ());
-		return data;
-	}
-
-	private JsonObject serializeEntitySleep(Entity entity, BlockPos sleepingPos) {
-		JsonObject data = new JsonObject();
-		data.addProperty("entityId", entity.getUuidAsString());
-		data.addProperty("entityType", entity.getType().toString());
-		data.addProperty("x", sleepingPos.getX());
-		data.addProperty("y", sleepingPos.getY());
-		data.addProperty("z", sleepingPos.getZ());
-		data.addProperty("dimension", entity.getWorld().getRegistryKey().getValue().toString());
-		return data;
-	}
-
-	private JsonObject serializeScreenInteraction(ServerPlayerEntity player) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-		data.addProperty("currentScreen", player.currentScreenHandler.getClass().getSimpleName());
-		return data;
-	}
-
-	private JsonObject serializeInventoryChange(ServerPlayerEntity player) {
-		JsonObject data = new JsonObject();
-		data.addProperty("playerId", player.getUuidAsString());
-		data.addProperty("playerName", player.getName().getString());
-
-		JsonArray inventory = new JsonArray();
-		for (int i = 0; i < player.getInventory().size(); i++) {
-			ItemStack stack = player.getInventory().getStack(i);
-			if (!stack.isEmpty()) {
-				JsonObject item = serializeItemStack(stack);
-				item.addProperty("slot", i);
-				inventory.add(item);
-			}
-		}
-		data.add("inventory", inventory);
-
-		return data;
+		EventFields.commandMessage(out, player != null ? player.getUuidAsString() : null,
+				player != null ? player.getGameProfile().getName() : null, message::getString, source.getName());
+	}
+
+	private void serializeAdvancementCriterion(EventWriter out, ServerPlayerEntity player, AdvancementEntry advancement, String criterion) {
+		EventFields.advancementCriterion(out, player.getUuidAsString(), player.getGameProfile().getName(),
+				advancement.id().toString(), criterion);
+	}
+
+	private void serializePlayerRespawn(EventWriter out, ServerPlayerEntity oldPlayer, ServerPlayerEntity newPlayer, boolean alive) {
+		EventFields.playerRespawn(out, newPlayer.getUuidAsString(), newPlayer.getGameProfile().getName(), alive,
+				newPlayer.getX(), newPlayer.getY(), newPlayer.getZ(), InternedNames.dimension(newPlayer.getWorld()));
+	}
+
+	private void serializeEntityWorldChange(EventWriter out, Entity originalEntity, Entity newEntity, ServerWorld origin, ServerWorld destination) {
+		EventFields.entityWorldChange(out, newEntity, ENTITIES, InternedNames.dimension(origin), InternedNames.dimension(destination));
+	}
+
+	private void serializeEntitySleep(EventWriter out, Entity entity, BlockPos sleepingPos) {
+		EventFields.entitySleep(out, entity, ENTITIES, sleepingPos.getX(), sleepingPos.getY(), sleepingPos.getZ(),
+				InternedNames.dimension(entity.getWorld()));
+	}
+
+	private void serializeScreenInteraction(EventWriter out, ServerPlayerEntity player) {
+		EventFields.screenInteraction(out, player.getUuidAsString(), player.getGameProfile().getName(),
+				player.currentScreenHandler.getClass().getSimpleName());
+	}
+
+	private void serializeInventoryChange(EventWriter out, ServerPlayerEntity player) {
+		PlayerInventory inventory = player.getInventory();
+		EventFields.inventoryChange(out, player.getUuidAsString(), player.getGameProfile().getName(),
+				inventory.size(), inventory::getStack, STACKS);
 	}
 
 }
@@ -1,12 +1,15 @@
 package com.denorite;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DenoriteConfig {
     private static final String CONFIG_FILE = "config/denorite.json";
@@ -14,11 +17,57 @@ public class DenoriteConfig {
     private String serverUrl;
     private String mcServerUrl;
     private boolean strictMode;
+    private int outboundQueueCapacity = 8192;
+    private String outboundOverflowPolicy = "drop_oldest";
+    private long outboundBlockTimeoutMs = 50;
+    private long outboundSendTimeoutMs = 10000;
+    private int batchMaxEvents = 512;
+    private int batchMaxBytes = 65536;
+    private long batchMaxDelayMs = 50;
+    private boolean spoolEnabled = false;
+    private String spoolDirectory = "denorite-spool";
+    private int spoolSegmentBytes = 8 * 1024 * 1024;
+    private long spoolMaxBytes = 256L * 1024 * 1024;
+    private long spoolMaxAgeMs = 24L * 60 * 60 * 1000;
+    // Off unless configured, a limit changes which events existing backends receive
+    private double rateLimitPerSecond = 0;
+    private int rateLimitBurst = 10;
+    private long rateLimitSummaryIntervalMs = 1000;
+    private int maxInboundMessageSize = 8 * 1024 * 1024;
+    private int fastLaneThreads = 2;
+    private int fastLaneQueueCapacity = 256;
+    private int ioLaneThreads = 2;
+    private int ioLaneQueueCapacity = 32;
+    private long serverTaskBudgetMs = 5;
+    private int inboundHighWaterMark = 256;
+    private int inboundLowWaterMark = 64;
+    private int responseChunkSize = 65536;
+    private int replayCacheSize = 0;
+    private long replayCacheTtlMs = 300000;
+    private long querySnapshotMaxAgeMs = 50;
+    private long connectTimeoutMs = 5000;
+    private long reconnectBaseDelayMs = 1000;
+    private long reconnectMaxDelayMs = 60000;
+    private long heartbeatIntervalMs = 15000;
+    private int heartbeatMissThreshold = 3;
+    private long strictModeDeadlineMs = 30000;
+    private int preConnectBufferSize = 1024;
+    private boolean telemetryChannelEnabled = false;
+    private long tickStatsIntervalMs = 5000;
+    private boolean tickEventsEnabled = true;
+    private List<String> rateLimitedEvents = List.of(
+            "player_attack_block", "player_use_block", "player_use_item", "player_attack_entity",
+            "player_use_entity", "merchant_interaction", "redstone_update");
 
     public DenoriteConfig() {
         loadConfig();
     }
 
+    // Builds a config from an in-memory object without touching config/denorite.json, used by benchmarks
+    DenoriteConfig(JsonObject config) {
+        applyConfig(config);
+    }
+
     private void loadConfig() {
         File configFile = new File(CONFIG_FILE);
         if (!configFile.exists()) {
@@ -27,17 +76,86 @@ public class DenoriteConfig {
 
         try {
             String jsonContent = FileUtils.readFileToString(configFile, StandardCharsets.UTF_8);
-            JsonObject config = new Gson().fromJson(jsonContent, JsonObject.class);
-
-            this.jwtToken = config.get("jwtToken").getAsString();
-            this.serverUrl = config.get("serverUrl").getAsString();
-            this.mcServerUrl = config.get("mcServerUrl").getAsString();
-            this.strictMode = config.get("strictMode").getAsBoolean();
+            applyConfig(new Gson().fromJson(jsonContent, JsonObject.class));
         } catch (IOException e) {
             Denorite.LOGGER.error("Error reading config file: " + e.getMessage());
         }
     }
 
+    private void applyConfig(JsonObject config) {
+        this.jwtToken = config.get("jwtToken").getAsString();
+        this.serverUrl = config.get("serverUrl").getAsString();
+        this.mcServerUrl = config.get("mcServerUrl").getAsString();
+        this.strictMode = config.get("strictMode").getAsBoolean();
+
+        // Optional tuning, older config files may not contain these
+        this.outboundQueueCapacity = getInt(config, "outboundQueueCapacity", outboundQueueCapacity);
+        this.outboundOverflowPolicy = getString(config, "outboundOverflowPolicy", outboundOverflowPolicy);
+        this.outboundBlockTimeoutMs = getLong(config, "outboundBlockTimeoutMs", outboundBlockTimeoutMs);
+        this.outboundSendTimeoutMs = getLong(config, "outboundSendTimeoutMs", outboundSendTimeoutMs);
+        this.batchMaxEvents = getInt(config, "batchMaxEvents", batchMaxEvents);
+        this.batchMaxBytes = getInt(config, "batchMaxBytes", batchMaxBytes);
+        this.batchMaxDelayMs = getLong(config, "batchMaxDelayMs", batchMaxDelayMs);
+        this.spoolEnabled = getBoolean(config, "spoolEnabled", spoolEnabled);
+        this.spoolDirectory = getString(config, "spoolDirectory", spoolDirectory);
+        this.spoolSegmentBytes = getInt(config, "spoolSegmentBytes", spoolSegmentBytes);
+        this.spoolMaxBytes = getLong(config, "spoolMaxBytes", spoolMaxBytes);
+        this.spoolMaxAgeMs = getLong(config, "spoolMaxAgeMs", spoolMaxAgeMs);
+        this.rateLimitPerSecond = config.has("rateLimitPerSecond") ? config.get("rateLimitPerSecond").getAsDouble() : rateLimitPerSecond;
+        this.rateLimitBurst = getInt(config, "rateLimitBurst", rateLimitBurst);
+        this.rateLimitSummaryIntervalMs = getLong(config, "rateLimitSummaryIntervalMs", rateLimitSummaryIntervalMs);
+        this.maxInboundMessageSize = getInt(config, "maxInboundMessageSize", maxInboundMessageSize);
+        this.fastLaneThreads = getInt(config, "fastLaneThreads", fastLaneThreads);
+        this.fastLaneQueueCapacity = getInt(config, "fastLaneQueueCapacity", fastLaneQueueCapacity);
+        this.ioLaneThreads = getInt(config, "ioLaneThreads", ioLaneThreads);
+        this.ioLaneQueueCapacity = getInt(config, "ioLaneQueueCapacity", ioLaneQueueCapacity);
+        this.serverTaskBudgetMs = getLong(config, "serverTaskBudgetMs", serverTaskBudgetMs);
+        this.inboundHighWaterMark = getInt(config, "inboundHighWaterMark", inboundHighWaterMark);
+        this.inboundLowWaterMark = getInt(config, "inboundLowWaterMark", inboundLowWaterMark);
+        this.responseChunkSize = getInt(config, "responseChunkSize", responseChunkSize);
+        this.replayCacheSize = getInt(config, "replayCacheSize", replayCacheSize);
+        this.replayCacheTtlMs = getLong(config, "replayCacheTtlMs", replayCacheTtlMs);
+        this.querySnapshotMaxAgeMs = getLong(config, "querySnapshotMaxAgeMs", querySnapshotMaxAgeMs);
+        this.connectTimeoutMs = getLong(config, "connectTimeoutMs", connectTimeoutMs);
+        this.reconnectBaseDelayMs = getLong(config, "reconnectBaseDelayMs", reconnectBaseDelayMs);
+        this.reconnectMaxDelayMs = getLong(config, "reconnectMaxDelayMs", reconnectMaxDelayMs);
+        this.heartbeatIntervalMs = getLong(config, "heartbeatIntervalMs", heartbeatIntervalMs);
+        this.heartbeatMissThreshold = getInt(config, "heartbeatMissThreshold", heartbeatMissThreshold);
+        this.strictModeDeadlineMs = getLong(config, "strictModeDeadlineMs", strictModeDeadlineMs);
+        this.preConnectBufferSize = getInt(config, "preConnectBufferSize", preConnectBufferSize);
+        this.telemetryChannelEnabled = getBoolean(config, "telemetryChannelEnabled", telemetryChannelEnabled);
+        this.tickStatsIntervalMs = getLong(config, "tickStatsIntervalMs", tickStatsIntervalMs);
+        this.tickEventsEnabled = getBoolean(config, "tickEventsEnabled", tickEventsEnabled);
+        this.rateLimitedEvents = getStringList(config, "rateLimitedEvents", rateLimitedEvents);
+    }
+
+    private static int getInt(JsonObject config, String key, int defaultValue) {
+        return config.has(key) ? config.get(key).getAsInt() : defaultValue;
+    }
+
+    private static long getLong(JsonObject config, String key, long defaultValue) {
+        return config.has(key) ? config.get(key).getAsLong() : defaultValue;
+    }
+
+    private static boolean getBoolean(JsonObject config, String key, boolean defaultValue) {
+        return config.has(key) ? config.get(key).getAsBoolean() : defaultValue;
+    }
+
+    private static String getString(JsonObject config, String key, String defaultValue) {
+        return config.has(key) ? config.get(key).getAsString() : defaultValue;
+    }
+
+    private static List<String> getStringList(JsonObject config, String key, List<String> defaultValue) {
+        if (!config.has(key)) {
+            return defaultValue;
+        }
+        List<String> values = new ArrayList<>();
+        for (JsonElement element : config.getAsJsonArray(key)) {
+            values.add(element.getAsString());
+        }
+        return values;
+    }
+
     private void createDefaultConfig(File configFile) {
         JsonObject defaultConfig = new JsonObject();
         defaultConfig.addProperty("jwtToken", "");
@@ -67,4 +185,156 @@ public class DenoriteConfig {
     public String getOrigin() {
         return mcServerUrl;
     }
+
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    public String getOutboundOverflowPolicy() {
+        return outboundOverflowPolicy;
+    }
+
+    public long getOutboundBlockTimeoutMs() {
+        return outboundBlockTimeoutMs;
+    }
+
+    public long getOutboundSendTimeoutMs() {
+        return outboundSendTimeoutMs;
+    }
+
+    public int getBatchMaxEvents() {
+        return batchMaxEvents;
+    }
+
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public long getBatchMaxDelayMs() {
+        return batchMaxDelayMs;
+    }
+
+    public boolean isSpoolEnabled() {
+        return spoolEnabled;
+    }
+
+    public String getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    public int getSpoolSegmentBytes() {
+        return spoolSegmentBytes;
+    }
+
+    public long getSpoolMaxBytes() {
+        return spoolMaxBytes;
+    }
+
+    public long getSpoolMaxAgeMs() {
+        return spoolMaxAgeMs;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public long getRateLimitSummaryIntervalMs() {
+        return rateLimitSummaryIntervalMs;
+    }
+
+    public List<String> getRateLimitedEvents() {
+        return rateLimitedEvents;
+    }
+
+    public long getTickStatsIntervalMs() {
+        return tickStatsIntervalMs;
+    }
+
+    public boolean isTickEventsEnabled() {
+        return tickEventsEnabled;
+    }
+
+    public int getMaxInboundMessageSize() {
+        return maxInboundMessageSize;
+    }
+
+    public int getFastLaneThreads() {
+        return fastLaneThreads;
+    }
+
+    public int getFastLaneQueueCapacity() {
+        return fastLaneQueueCapacity;
+    }
+
+    public int getIoLaneThreads() {
+        return ioLaneThreads;
+    }
+
+    public int getIoLaneQueueCapacity() {
+        return ioLaneQueueCapacity;
+    }
+
+    public long getServerTaskBudgetMs() {
+        return serverTaskBudgetMs;
+    }
+
+    public int getInboundHighWaterMark() {
+        return inboundHighWaterMark;
+    }
+
+    public int getInboundLowWaterMark() {
+        return inboundLowWaterMark;
+    }
+
+    public int getResponseChunkSize() {
+        return responseChunkSize;
+    }
+
+    public int getReplayCacheSize() {
+        return replayCacheSize;
+    }
+
+    public long getReplayCacheTtlMs() {
+        return replayCacheTtlMs;
+    }
+
+    public long getQuerySnapshotMaxAgeMs() {
+        return querySnapshotMaxAgeMs;
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public long getStrictModeDeadlineMs() {
+        return strictModeDeadlineMs;
+    }
+
+    public int getPreConnectBufferSize() {
+        return preConnectBufferSize;
+    }
+
+    public long getReconnectBaseDelayMs() {
+        return reconnectBaseDelayMs;
+    }
+
+    public long getReconnectMaxDelayMs() {
+        return reconnectMaxDelayMs;
+    }
+
+    public boolean isTelemetryChannelEnabled() {
+        return telemetryChannelEnabled;
+    }
+
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+
+    public int getHeartbeatMissThreshold() {
+        return heartbeatMissThreshold;
+    }
 }
@@ -26,7 +26,7 @@ public class DownloadManager {
                 response.add("result", result);
             }
 
-            Denorite.sendToTypeScript("file_download_completed", response);
+            Denorite.sendToTypeScript(EventType.FILE_DOWNLOAD_COMPLETED, response);
         });
     }
 }
@@ -38,6 +38,33 @@ public class DynamicCommandHandler {
         registerCommands();
     }
 
+    public static void registerHandlers() {
+        // The command map is only touched on the server thread, which also owns the dispatcher
+        MessageHandlers.register("register_command", MessageHandlers.Runs.SERVER_THREAD, 0, context -> {
+            JsonElement data = context.getMessage().get("data");
+            if (data == null || !data.isJsonObject()) {
+                throw new IllegalArgumentException("Missing or invalid 'data' field for register_command");
+            }
+            confirmReconnect();
+            registerCommand(data.getAsJsonObject());
+            return "Command registered. Restart the server to apply changes.";
+        });
+
+        MessageHandlers.register("unregister_command", MessageHandlers.Runs.SERVER_THREAD, 0, context -> {
+            JsonElement data = context.getMessage().get("data");
+            if (data == null) {
+                throw new IllegalArgumentException("Missing required 'data' field for unregister_command");
+            }
+            unregisterCommand(data.getAsString());
+            return "Command unregistered. Restart the server to apply changes.";
+        });
+
+        MessageHandlers.register("clear_commands", MessageHandlers.Runs.SERVER_THREAD, 0, context -> {
+            clearCommands();
+            return "All custom commands cleared. Restart the server to apply changes.";
+        });
+    }
+
     public static void handleReconnect() {
         previousCommands = new HashMap<>(registeredCommands);
         isReconnecting = true;
@@ -307,8 +334,42 @@ public class DynamicCommandHandler {
 
     private static int executeCommand(CommandContext<ServerCommandSource> context, JsonObject commandData,
                                       String commandName, String subcommandName) {
+        if (!EventSubscriptions.isSubscribed(EventType.CUSTOM_COMMAND_EXECUTED)) {
+            return 1;
+        }
+
         ServerCommandSource source = context.getSource();
+        String senderType = source.getEntity() instanceof net.minecraft.server.network.ServerPlayerEntity ? "player" : "console";
 
+        JsonObject executionData = buildExecutionData(commandData, commandName, subcommandName, source.getName(), senderType,
+                (argName, argType) -> switch (argType) {
+                    case "string" -> StringArgumentType.getString(context, argName);
+                    case "integer" -> IntegerArgumentType.getInteger(context, argName);
+                    case "player" -> EntityArgumentType.getPlayer(context, argName).getName().getString();
+                    case "item" -> {
+                        ItemStack itemStack = ItemStackArgumentType.getItemStackArgument(context, argName).createStack(1, false);
+                        yield itemStack.getItem().getTranslationKey();
+                    }
+                    default -> context.getArgument(argName, String.class);
+                });
+
+        Denorite.sendToTypeScript(EventType.CUSTOM_COMMAND_EXECUTED, executionData);
+        return 1;
+    }
+
+    /**
+     * Looks up one argument value of the executing command, throws if the argument is not present in this context.
+     */
+    @FunctionalInterface
+    interface ArgumentResolver {
+        Object resolve(String argName, String argType) throws Exception;
+    }
+
+    /**
+     * Builds the custom_command_executed payload, kept apart from Brigadier so benchmarks can drive it.
+     */
+    static JsonObject buildExecutionData(JsonObject commandData, String commandName, String subcommandName,
+                                         String senderName, String senderType, ArgumentResolver resolver) {
         JsonObject executionData = new JsonObject();
         executionData.addProperty("command", commandName);
         if (subcommandName != null) {
@@ -316,8 +377,6 @@ public class DynamicCommandHandler {
         }
 
         // Add sender information
-        String senderName = source.getName();
-        String senderType = source.getEntity() instanceof net.minecraft.server.network.ServerPlayerEntity ? "player" : "console";
         executionData.addProperty("sender", senderName);
         executionData.addProperty("senderType", senderType);
 
@@ -330,15 +389,11 @@ public class DynamicCommandHandler {
                 String argType = arg.get("type").getAsString();
 
                 try {
-                    switch (argType) {
-                        case "string" -> args.addProperty(argName, StringArgumentType.getString(context, argName));
-                        case "integer" -> args.addProperty(argName, IntegerArgumentType.getInteger(context, argName));
-                        case "player" -> args.addProperty(argName, EntityArgumentType.getPlayer(context, argName).getName().getString());
-                        case "item" -> {
-                            ItemStack itemStack = ItemStackArgumentType.getItemStackArgument(context, argName).createStack(1, false);
-                            args.addProperty(argName, itemStack.getItem().getTranslationKey());
-                        }
-                        default -> args.addProperty(argName, context.getArgument(argName, String.class));
+                    Object value = resolver.resolve(argName, argType);
+                    if (value instanceof Number number) {
+                        args.addProperty(argName, number);
+                    } else {
+                        args.addProperty(argName, String.valueOf(value));
                     }
                 } catch (Exception e) {
                     // Skip arguments that don't exist in this context
@@ -346,9 +401,7 @@ public class DynamicCommandHandler {
             }
             executionData.add("arguments", args);
         }
-
-        Denorite.sendToTypeScript("custom_command_executed", executionData);
-        return 1;
+        return executionData;
     }
 
     public static void unregisterCommand(String name) {
@@ -0,0 +1,174 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the events of one server tick into a single JSON array frame.
+ * Off by default; the backend opts in with the handshake message. A batch is flushed at the end of
+ * every server tick, or earlier when it reaches the event, size or latency cap.
+ */
+public class EventBatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Batcher");
+    private static final String BATCH_TYPE = "event_batch";
+
+    private static volatile boolean enabled = false;
+    private static int maxEvents;
+    private static int maxBytes;
+    private static long maxDelayNanos;
+
+    private static final Object lock = new Object();
+    private static final StringBuilder batch = new StringBuilder();
+    private static final BinaryCodec.Output binaryBatch = new BinaryCodec.Output(4096);
+    private static boolean binaryMode = false;
+    private static int count = 0;
+    // UTF-8 size of the text batch, which is what goes over the wire
+    private static int batchBytes = 0;
+    private static long firstEventAt = 0;
+
+    private static int defaultMaxEvents;
+    private static int defaultMaxBytes;
+    private static long defaultMaxDelayMs;
+
+    public static void initialize(DenoriteConfig config) {
+        defaultMaxEvents = config.getBatchMaxEvents();
+        defaultMaxBytes = config.getBatchMaxBytes();
+        defaultMaxDelayMs = config.getBatchMaxDelayMs();
+
+        // Runs after all event listeners so the tick's last events make it into its batch
+        ServerTickEvents.END_SERVER_TICK.register(TickPhases.LATE, server -> flush());
+
+        // Events fired outside of ticks (startup, downloads) still go out within the latency cap
+        long period = Math.max(1, defaultMaxDelayMs / 2);
+        Denorite.scheduler.scheduleAtFixedRate(EventBatcher::flushIfStale, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies the batching part of a handshake. Caps the backend leaves out use the configured defaults.
+     */
+    public static JsonObject configure(JsonObject options) {
+        synchronized (lock) {
+            flushLocked();
+            maxEvents = options.has("maxBatchEvents") ? options.get("maxBatchEvents").getAsInt() : defaultMaxEvents;
+            maxBytes = options.has("maxBatchBytes") ? options.get("maxBatchBytes").getAsInt() : defaultMaxBytes;
+            long maxDelayMs = options.has("maxBatchDelayMs") ? options.get("maxBatchDelayMs").getAsLong() : defaultMaxDelayMs;
+            maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+            enabled = options.has("batching") && options.get("batching").getAsBoolean();
+
+            JsonObject negotiated = new JsonObject();
+            negotiated.addProperty("batching", enabled);
+            if (enabled) {
+                negotiated.addProperty("maxBatchEvents", maxEvents);
+                negotiated.addProperty("maxBatchBytes", maxBytes);
+                negotiated.addProperty("maxBatchDelayMs", maxDelayMs);
+                LOGGER.info("Event batching enabled (" + maxEvents + " events, " + maxBytes + " bytes, " + maxDelayMs + "ms)");
+            }
+            return negotiated;
+        }
+    }
+
+    /**
+     * Turns batching off again and sends whatever is pending, used when the connection changes.
+     */
+    public static void reset() {
+        synchronized (lock) {
+            enabled = false;
+            flushLocked();
+        }
+    }
+
+    public static void add(String payload) {
+        synchronized (lock) {
+            startEvent(false);
+            batch.append(count == 0 ? '[' : ',');
+            batch.append(payload);
+            batchBytes += 1 + utf8Length(payload);
+            count++;
+
+            if (count >= maxEvents || batchBytes >= maxBytes) {
+                flushLocked();
+            }
+        }
+    }
+
+    /**
+     * Adds an event already encoded with {@link BinaryCodec}; the batch becomes one MessagePack array.
+     */
+    public static void add(byte[] payload) {
+        synchronized (lock) {
+            startEvent(true);
+            binaryBatch.writeRaw(payload);
+            count++;
+
+            if (count >= maxEvents || binaryBatch.length() >= maxBytes) {
+                flushLocked();
+            }
+        }
+    }
+
+    private static void startEvent(boolean binary) {
+        // A batch never mixes text and binary events, the protocol may switch mid-tick after a handshake
+        if (count > 0 && binaryMode != binary) {
+            flushLocked();
+        }
+        if (count == 0) {
+            binaryMode = binary;
+            firstEventAt = System.nanoTime();
+        }
+    }
+
+    public static void flush() {
+        synchronized (lock) {
+            flushLocked();
+        }
+    }
+
+    private static void flushIfStale() {
+        synchronized (lock) {
+            if (count > 0 && System.nanoTime() - firstEventAt >= maxDelayNanos) {
+                flushLocked();
+            }
+        }
+    }
+
+    private static void flushLocked() {
+        if (count == 0) {
+            return;
+        }
+        if (binaryMode) {
+            BinaryCodec.Output frame = new BinaryCodec.Output(binaryBatch.length() + 5);
+            frame.writeArrayHeader(count);
+            binaryBatch.writeTo(frame);
+            OutboundQueue.offerEvent(BATCH_TYPE, frame.toByteArray());
+            binaryBatch.reset();
+        } else {
+            batch.append(']');
+            OutboundQueue.offerEvent(BATCH_TYPE, batch.toString());
+            batch.setLength(0);
+            batchBytes = 0;
+        }
+        count = 0;
+    }
+
+    private static int utf8Length(String text) {
+        int bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800) {
+                // Three bytes, or four for a surrogate pair counted over its two chars
+                bytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+}
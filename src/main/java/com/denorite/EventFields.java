@@ -0,0 +1,254 @@
+package com.denorite;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The field layouts of the event data objects, written from plain values. {@code Denorite}'s serializers
+ * read game objects and hand the values over, benchmarks drive the same methods from fixtures.
+ * Values that are expensive to compute are passed as suppliers and only read when the backend wants them.
+ */
+final class EventFields {
+    private EventFields() {
+    }
+
+    /**
+     * Reads the entity fields the layouts write, implemented over {@code Entity} in game.
+     */
+    interface EntityReader<E> {
+        String id(E entity);
+
+        String type(E entity);
+
+        double x(E entity);
+
+        double y(E entity);
+
+        double z(E entity);
+    }
+
+    /**
+     * Reads the item stack fields the layouts write, implemented over {@code ItemStack} in game.
+     */
+    interface StackReader<S> {
+        boolean isEmpty(S stack);
+
+        String item(S stack);
+
+        int count(S stack);
+
+        int damage(S stack);
+    }
+
+    static void player(EventWriter out, String playerId, String playerName, double x, double y, double z, String dimension) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("x", x);
+        out.field("y", y);
+        out.field("z", z);
+        out.field("dimension", dimension);
+    }
+
+    static <E> void playerDeath(EventWriter out, String playerId, String playerName, double x, double y, double z,
+                                String dimension, Supplier<String> deathMessage, Supplier<E> attacker, EntityReader<E> reader) {
+        player(out, playerId, playerName, x, y, z, dimension);
+        if (out.wants("deathMessage")) {
+            String message = deathMessage.get();
+            if (message != null) {
+                out.field("deathMessage", message);
+            }
+        }
+
+        E source = out.wants("attackerId") || out.wants("attackerType") ? attacker.get() : null;
+        if (source != null) {
+            out.field("attackerId", reader.id(source));
+            out.field("attackerType", reader.type(source));
+        }
+    }
+
+    static void playerRespawn(EventWriter out, String playerId, String playerName, boolean alive,
+                              double x, double y, double z, String dimension) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("alive", alive);
+        out.field("x", x);
+        out.field("y", y);
+        out.field("z", z);
+        out.field("dimension", dimension);
+    }
+
+    static <E> void entity(EventWriter out, E entity, EntityReader<E> reader) {
+        out.field("entityId", reader.id(entity));
+        out.field("entityType", reader.type(entity));
+        out.field("x", reader.x(entity));
+        out.field("y", reader.y(entity));
+        out.field("z", reader.z(entity));
+    }
+
+    /**
+     * @param killer null when nothing killed the entity directly
+     */
+    static <E> void entityDeath(EventWriter out, E killedEntity, E killer, EntityReader<E> reader, Supplier<String> deathMessage) {
+        out.beginObject("killedEntity");
+        entity(out, killedEntity, reader);
+        out.endObject();
+        if (killer != null) {
+            out.beginObject("killer");
+            entity(out, killer, reader);
+            out.endObject();
+        }
+
+        if (out.wants("deathMessage")) {
+            String message = deathMessage.get();
+            if (message != null) {
+                out.field("deathMessage", message);
+            }
+        }
+    }
+
+    static <E> void entityKill(EventWriter out, E killer, E victim, EntityReader<E> reader) {
+        out.beginObject("killer");
+        entity(out, killer, reader);
+        out.endObject();
+        out.beginObject("victim");
+        entity(out, victim, reader);
+        out.endObject();
+    }
+
+    static <E> void entityEvent(EventWriter out, String playerId, E entity, EntityReader<E> reader) {
+        out.field("playerId", playerId);
+        out.field("entityId", reader.id(entity));
+        out.field("entityType", reader.type(entity));
+    }
+
+    static <E> void entityWorldChange(EventWriter out, E entity, EntityReader<E> reader, String originalWorld, String newWorld) {
+        out.field("entityId", reader.id(entity));
+        out.field("entityType", reader.type(entity));
+        out.field("originalWorld", originalWorld);
+        out.field("newWorld", newWorld);
+        out.field("x", reader.x(entity));
+        out.field("y", reader.y(entity));
+        out.field("z", reader.z(entity));
+    }
+
+    static <E> void entitySleep(EventWriter out, E entity, EntityReader<E> reader, int x, int y, int z, String dimension) {
+        out.field("entityId", reader.id(entity));
+        out.field("entityType", reader.type(entity));
+        out.field("x", x);
+        out.field("y", y);
+        out.field("z", z);
+        out.field("dimension", dimension);
+    }
+
+    static void world(EventWriter out, String dimensionKey, long time, String difficultyLevel) {
+        out.field("dimensionKey", dimensionKey);
+        out.field("time", time);
+        out.field("difficultyLevel", difficultyLevel);
+    }
+
+    static void chunk(EventWriter out, String dimensionKey, int chunkX, int chunkZ) {
+        out.field("dimensionKey", dimensionKey);
+        out.field("chunkX", chunkX);
+        out.field("chunkZ", chunkZ);
+    }
+
+    static void blockEvent(EventWriter out, String playerId, int x, int y, int z, String block) {
+        out.field("playerId", playerId);
+        out.field("x", x);
+        out.field("y", y);
+        out.field("z", z);
+        out.field("block", block);
+    }
+
+    static void containerInteraction(EventWriter out, String playerId, String playerName, String blockType,
+                                     int x, int y, int z, String dimension) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("blockType", blockType);
+        out.field("x", x);
+        out.field("y", y);
+        out.field("z", z);
+        out.field("dimension", dimension);
+    }
+
+    static void itemEvent(EventWriter out, String playerId, String item, int count) {
+        out.field("playerId", playerId);
+        out.field("item", item);
+        out.field("count", count);
+    }
+
+    static <S> void itemStack(EventWriter out, S stack, StackReader<S> reader) {
+        out.field("item", reader.item(stack));
+        out.field("count", reader.count(stack));
+        out.field("damage", reader.damage(stack));
+    }
+
+    static <S> void inventoryChange(EventWriter out, String playerId, String playerName,
+                                    int size, IntFunction<S> slots, StackReader<S> reader) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+
+        if (!out.wants("inventory")) {
+            return;
+        }
+        out.beginArray("inventory");
+        for (int i = 0; i < size; i++) {
+            S stack = slots.apply(i);
+            if (!reader.isEmpty(stack)) {
+                out.beginObject();
+                itemStack(out, stack, reader);
+                out.field("slot", i);
+                out.endObject();
+            }
+        }
+        out.endArray();
+    }
+
+    static void chat(EventWriter out, String playerId, String playerName, String message) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("message", message);
+    }
+
+    static void command(EventWriter out, String playerId, String playerName, String command) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("command", command);
+    }
+
+    /**
+     * @param playerId null when the command did not come from a player, the player fields are left out then
+     */
+    static void commandMessage(EventWriter out, String playerId, String playerName, Supplier<String> message, String command) {
+        if (playerId != null) {
+            out.field("playerId", playerId);
+            out.field("playerName", playerName);
+        }
+        if (out.wants("message")) {
+            out.field("message", message.get());
+        }
+        out.field("command", command);
+    }
+
+    static void advancement(EventWriter out, String playerId, String playerName, String advancementId, Supplier<String> title) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("advancementId", advancementId);
+        if (out.wants("title")) {
+            out.field("title", title.get());
+        }
+    }
+
+    static void advancementCriterion(EventWriter out, String playerId, String playerName, String advancementId, String criterion) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("advancementId", advancementId);
+        out.field("criterion", criterion);
+    }
+
+    static void screenInteraction(EventWriter out, String playerId, String playerName, String currentScreen) {
+        out.field("playerId", playerId);
+        out.field("playerName", playerName);
+        out.field("currentScreen", currentScreen);
+    }
+}
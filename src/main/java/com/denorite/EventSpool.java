@@ -0,0 +1,432 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Append-only spool for events that could not be sent because the backend was disconnected.
+ * Records are written into fixed-size segment files with monotonically increasing sequence numbers.
+ * After a reconnect the spool is replayed in order as {@code spooled_event} frames; segments are deleted once the
+ * backend acknowledges their last sequence number with a {@code spool_ack} message, or when they exceed the
+ * configured size or age limits. Delivery is at-least-once: unacknowledged records replay again on the next connect.
+ * <p>
+ * Record layout: int length, long sequence, long timestamp, UTF-8 frame text. A zero length or a truncated record
+ * marks the end of a segment. Segments are written and read through plain file channels and streams rather than
+ * memory mappings, so a deleted segment releases its file right away, on Windows too.
+ */
+public class EventSpool {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Spool");
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ACK_FILE = "ack";
+    private static final int HEADER_BYTES = 4 + 8 + 8;
+
+    private static final class Segment {
+        final Path path;
+        final long firstSeq;
+        long lastSeq;
+        long lastWriteMs;
+        int size;
+
+        Segment(Path path, long firstSeq) {
+            this.path = path;
+            this.firstSeq = firstSeq;
+            this.lastSeq = firstSeq - 1;
+        }
+    }
+
+    private static boolean enabled = false;
+    private static Path directory;
+    private static int segmentBytes;
+    private static long maxBytes;
+    private static long maxAgeMs;
+
+    private static final Object lock = new Object();
+    private static final Deque<Segment> sealed = new ArrayDeque<>();
+    private static Segment active;
+    private static FileChannel activeChannel;
+    private static long nextSeq = 1;
+    private static long ackedSeq = 0;
+    private static long droppedRecords = 0;
+
+    private static Thread replayThread;
+
+    public static void initialize(DenoriteConfig config) {
+        MessageHandlers.register("spool_ack", MessageHandlers.Runs.FAST_LANE, 0, context -> {
+            InboundMessage message = context.getMessage();
+            if (!message.has("data")) {
+                throw new IllegalArgumentException("Missing required 'data' field for spool_ack");
+            }
+            return acknowledge(message.get("data").getAsLong());
+        });
+
+        enabled = config.isSpoolEnabled();
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            open(Paths.get(config.getSpoolDirectory()), config.getSpoolSegmentBytes(), config.getSpoolMaxBytes(), config.getSpoolMaxAgeMs());
+        } catch (IOException e) {
+            LOGGER.error("Failed to open event spool, spooling disabled: " + e.getMessage());
+            return;
+        }
+
+        Denorite.scheduler.scheduleAtFixedRate(EventSpool::enforceLimits, 1, 1, TimeUnit.MINUTES);
+        LOGGER.info("Event spool ready in " + directory + " (" + sealed.size() + " segments pending, next sequence " + nextSeq + ")");
+    }
+
+    /**
+     * Opens the spool in {@code dir}, picking up the segments and acknowledgement left there, and enables it.
+     * Whatever spool was open before is forgotten without being closed.
+     */
+    static void open(Path dir, int segmentSize, long maxTotalBytes, long maxSegmentAgeMs) throws IOException {
+        synchronized (lock) {
+            enabled = false;
+            directory = dir;
+            segmentBytes = segmentSize;
+            maxBytes = maxTotalBytes;
+            maxAgeMs = maxSegmentAgeMs;
+            sealed.clear();
+            active = null;
+            activeChannel = null;
+            nextSeq = 1;
+            ackedSeq = 0;
+            droppedRecords = 0;
+
+            Files.createDirectories(directory);
+            loadExisting();
+            enabled = true;
+        }
+    }
+
+    /**
+     * Flushes and closes the segment being written and disables the spool.
+     */
+    static void close() {
+        synchronized (lock) {
+            sealActive();
+            enabled = false;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    private static void loadExisting() throws IOException {
+        Path ackPath = directory.resolve(ACK_FILE);
+        if (Files.exists(ackPath)) {
+            ackedSeq = Long.parseLong(Files.readString(ackPath).trim());
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().forEach(files::add);
+        }
+
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            Segment segment = new Segment(path, Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            segment.lastWriteMs = Files.getLastModifiedTime(path).toMillis();
+
+            // The size ends after the last complete record, a record cut short by a crash is not part of it
+            segment.size = readRecords(path, Files.size(path), false, (seq, timestamp, frame) -> {
+                segment.lastSeq = seq;
+                return true;
+            });
+
+            if (segment.lastSeq < segment.firstSeq || segment.lastSeq <= ackedSeq) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            sealed.add(segment);
+            nextSeq = Math.max(nextSeq, segment.lastSeq + 1);
+        }
+        nextSeq = Math.max(nextSeq, ackedSeq + 1);
+    }
+
+    /**
+     * Appends a text frame that could not be sent. Returns false if it had to be dropped.
+     */
+    public static boolean append(String frame) {
+        if (!enabled) {
+            return false;
+        }
+
+        byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + bytes.length;
+        if (recordBytes > segmentBytes) {
+            synchronized (lock) {
+                droppedRecords++;
+            }
+            return false;
+        }
+
+        synchronized (lock) {
+            try {
+                if (active == null || segmentBytes - active.size < recordBytes) {
+                    rollSegment();
+                }
+                ByteBuffer record = ByteBuffer.allocate(recordBytes)
+                        .putInt(bytes.length)
+                        .putLong(nextSeq)
+                        .putLong(System.currentTimeMillis())
+                        .put(bytes)
+                        .flip();
+                while (record.hasRemaining()) {
+                    activeChannel.write(record);
+                }
+
+                active.lastSeq = nextSeq++;
+                active.lastWriteMs = System.currentTimeMillis();
+                active.size += recordBytes;
+                return true;
+            } catch (IOException e) {
+                LOGGER.error("Failed to write to event spool: " + e.getMessage());
+                droppedRecords++;
+                if (active != null) {
+                    // Cut off a partly written record so the next one follows the last complete record
+                    try {
+                        activeChannel.truncate(active.size);
+                        activeChannel.position(active.size);
+                    } catch (IOException truncateError) {
+                        LOGGER.error("Failed to repair spool segment " + active.path + ": " + truncateError.getMessage());
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    private static void rollSegment() throws IOException {
+        sealActive();
+        Segment segment = new Segment(directory.resolve(String.format("%020d", nextSeq) + SEGMENT_SUFFIX), nextSeq);
+        activeChannel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        active = segment;
+        enforceLimitsLocked();
+    }
+
+    private static void sealActive() {
+        if (active == null) {
+            return;
+        }
+        try (FileChannel channel = activeChannel) {
+            channel.force(false);
+        } catch (IOException e) {
+            LOGGER.error("Failed to flush spool segment " + active.path + ": " + e.getMessage());
+        }
+        if (active.lastSeq >= active.firstSeq) {
+            sealed.add(active);
+        } else {
+            deleteQuietly(active.path);
+        }
+        active = null;
+        activeChannel = null;
+    }
+
+    /**
+     * Replays every unacknowledged record on a background thread, called when the connection events are sent on
+     * opens. The replay stops as soon as that connection is gone, the next one replays from the last acknowledgement.
+     */
+    public static void replay(WebSocket socket) {
+        if (!enabled) {
+            return;
+        }
+
+        if (replayThread != null && replayThread.isAlive()) {
+            replayThread.interrupt();
+        }
+        replayThread = new Thread(() -> replayNow(() -> OutboundQueue.eventSocket() == socket, OutboundQueue::putReplayed), "Denorite-SpoolReplay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    /**
+     * Replays every unacknowledged record on the calling thread, as {@code spooled_event} frames in sequence order.
+     *
+     * @param connected checked before each frame, the replay stops once it returns false
+     * @param sink      takes each frame, returning false stops the replay
+     * @return the number of frames the sink took
+     */
+    static long replayNow(BooleanSupplier connected, Predicate<String> sink) {
+        List<Segment> segments;
+        long fromSeq;
+        synchronized (lock) {
+            sealActive();
+            if (sealed.isEmpty()) {
+                return 0;
+            }
+            segments = new ArrayList<>(sealed);
+            fromSeq = ackedSeq;
+        }
+        return replaySegments(segments, fromSeq, connected, sink);
+    }
+
+    private static long replaySegments(List<Segment> segments, long fromSeq, BooleanSupplier connected, Predicate<String> sink) {
+        long[] replayed = {0};
+        boolean[] stopped = {false};
+        for (Segment segment : segments) {
+            if (segment.lastSeq <= fromSeq) {
+                continue;
+            }
+            try {
+                readRecords(segment.path, segment.size, true, (seq, timestamp, bytes) -> {
+                    if (seq <= fromSeq) {
+                        return true;
+                    }
+                    String frame = "{\"eventType\":\"spooled_event\",\"data\":{\"seq\":" + seq
+                            + ",\"timestamp\":" + timestamp
+                            + ",\"event\":" + new String(bytes, StandardCharsets.UTF_8) + "}}";
+                    if (Thread.currentThread().isInterrupted() || !connected.getAsBoolean() || !sink.test(frame)) {
+                        LOGGER.info("Spool replay stopped after " + replayed[0] + " events");
+                        stopped[0] = true;
+                        return false;
+                    }
+                    replayed[0]++;
+                    return true;
+                });
+                if (stopped[0]) {
+                    return replayed[0];
+                }
+            } catch (NoSuchFileException e) {
+                // Acknowledged or expired while we were replaying
+            } catch (IOException e) {
+                LOGGER.error("Failed to replay spool segment " + segment.path + ": " + e.getMessage());
+            }
+        }
+        LOGGER.info("Replayed " + replayed[0] + " spooled events");
+        return replayed[0];
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        /**
+         * @param frame the record's frame text, or null when frames are skipped
+         * @return false to stop reading
+         */
+        boolean accept(long seq, long timestamp, byte[] frame) throws IOException;
+    }
+
+    /**
+     * Reads the records of a segment in order, up to {@code limit} bytes.
+     *
+     * @return the offset just past the last complete record
+     */
+    static int readRecords(Path path, long limit, boolean readFrames, RecordHandler handler) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int offset = 0;
+            while (limit - offset >= HEADER_BYTES) {
+                int length = in.readInt();
+                if (length <= 0 || limit - offset - HEADER_BYTES < length) {
+                    break;
+                }
+                long seq = in.readLong();
+                long timestamp = in.readLong();
+                byte[] frame = null;
+                if (readFrames) {
+                    frame = new byte[length];
+                    in.readFully(frame);
+                } else {
+                    in.skipNBytes(length);
+                }
+                offset += HEADER_BYTES + length;
+                if (!handler.accept(seq, timestamp, frame)) {
+                    break;
+                }
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Handles a spool_ack message: everything up to and including the sequence number can be discarded.
+     */
+    public static String acknowledge(long seq) {
+        if (!enabled) {
+            throw new IllegalStateException("Event spool is not enabled");
+        }
+
+        int deleted = 0;
+        synchronized (lock) {
+            if (seq <= ackedSeq) {
+                return "Already acknowledged up to " + ackedSeq;
+            }
+            ackedSeq = seq;
+            while (!sealed.isEmpty() && sealed.peekFirst().lastSeq <= seq) {
+                deleteQuietly(sealed.pollFirst().path);
+                deleted++;
+            }
+            try {
+                Files.writeString(directory.resolve(ACK_FILE), Long.toString(ackedSeq));
+            } catch (IOException e) {
+                LOGGER.error("Failed to persist spool acknowledgement: " + e.getMessage());
+            }
+        }
+        return "Acknowledged up to " + seq + ", deleted " + deleted + " segment(s)";
+    }
+
+    private static void enforceLimits() {
+        synchronized (lock) {
+            enforceLimitsLocked();
+        }
+    }
+
+    private static void enforceLimitsLocked() {
+        long now = System.currentTimeMillis();
+        long total = active != null ? active.size : 0;
+        for (Segment segment : sealed) {
+            total += segment.size;
+        }
+        while (!sealed.isEmpty()) {
+            Segment oldest = sealed.peekFirst();
+            boolean tooOld = maxAgeMs > 0 && now - oldest.lastWriteMs > maxAgeMs;
+            boolean tooBig = maxBytes > 0 && total > maxBytes;
+            if (!tooOld && !tooBig) {
+                break;
+            }
+            sealed.pollFirst();
+            deleteQuietly(oldest.path);
+            droppedRecords += Math.max(0, oldest.lastSeq - Math.max(oldest.firstSeq - 1, ackedSeq));
+            total -= oldest.size;
+            LOGGER.warn("Discarded spool segment " + oldest.path.getFileName() + (tooOld ? " (too old)" : " (spool full)"));
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete spool segment " + path + ": " + e.getMessage());
+        }
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("enabled", enabled);
+        synchronized (lock) {
+            metrics.addProperty("segments", sealed.size() + (active != null ? 1 : 0));
+            metrics.addProperty("nextSeq", nextSeq);
+            metrics.addProperty("ackedSeq", ackedSeq);
+            metrics.addProperty("dropped", droppedRecords);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,90 @@
+package com.denorite;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks which event types the backend wants, as a lock-free bitset indexed by {@link EventType} ordinal.
+ * Event call sites check {@link #isSubscribed} before serializing anything, so unwanted events
+ * cost a single bit test on the server thread.
+ * Everything is subscribed by default, which keeps backends that never send subscribe working as before.
+ */
+public class EventSubscriptions {
+    private static final String ALL = "*";
+    private static final EventType[] TYPES = EventType.values();
+    private static final AtomicLongArray bits = new AtomicLongArray((TYPES.length + 63) >>> 6);
+
+    static {
+        reset();
+    }
+
+    public static boolean isSubscribed(EventType type) {
+        int index = type.ordinal();
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Subscribes everything again, called whenever a new backend connection opens.
+     */
+    public static void reset() {
+        for (EventType type : TYPES) {
+            set(type, true);
+        }
+    }
+
+    /**
+     * Handles a subscribe or unsubscribe message. The data is a single event name or an array of them,
+     * "*" matches every event type.
+     */
+    public static String update(JsonElement data, boolean subscribe) {
+        JsonArray names;
+        if (data.isJsonArray()) {
+            names = data.getAsJsonArray();
+        } else {
+            names = new JsonArray();
+            names.add(data.getAsString());
+        }
+
+        for (JsonElement element : names) {
+            String name = element.getAsString();
+            if (ALL.equals(name)) {
+                for (EventType type : TYPES) {
+                    set(type, subscribe);
+                }
+                continue;
+            }
+
+            EventType type = EventType.fromName(name);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown event type: " + name);
+            }
+            set(type, subscribe);
+        }
+
+        return (subscribe ? "Subscribed to " : "Unsubscribed from ") + names.size() + " event type(s)";
+    }
+
+    public static JsonArray getSubscribed() {
+        JsonArray subscribed = new JsonArray();
+        for (EventType type : TYPES) {
+            if (isSubscribed(type)) {
+                subscribed.add(type.getName());
+            }
+        }
+        return subscribed;
+    }
+
+    private static void set(EventType type, boolean subscribed) {
+        int index = type.ordinal();
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        long updated;
+        do {
+            current = bits.get(word);
+            updated = subscribed ? current | mask : current & ~mask;
+        } while (!bits.compareAndSet(word, current, updated));
+    }
+}
@@ -0,0 +1,98 @@
+package com.denorite;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every event Denorite can send to the backend, with its wire name.
+ * The ordinal is used as the bit index in {@link EventSubscriptions}.
+ */
+public enum EventType {
+    // Server lifecycle
+    SERVER_STARTING("server_starting"),
+    SERVER_STARTED("server_started"),
+    SERVER_STOPPING("server_stopping"),
+    SERVER_STOPPED("server_stopped"),
+    SERVER_TICK_START("server_tick_start"),
+    SERVER_TICK_END("server_tick_end"),
+    SERVER_BEFORE_SAVE("server_before_save"),
+    SERVER_AFTER_SAVE("server_after_save"),
+    DATA_PACK_RELOAD_START("data_pack_reload_start"),
+    DATA_PACK_RELOAD_END("data_pack_reload_end"),
+    DATA_PACK_SYNC("data_pack_sync"),
+
+    // Players
+    PLAYER_RESPAWNED("player_respawned"),
+    PLAYER_JOINED("player_joined"),
+    PLAYER_LEFT("player_left"),
+    PLAYER_CONNECTION_INIT("player_connection_init"),
+    PLAYER_BREAK_BLOCK_BEFORE("player_break_block_before"),
+    PLAYER_BREAK_BLOCK_CANCELED("player_break_block_canceled"),
+    PLAYER_BREAK_BLOCK_AFTER("player_break_block_after"),
+    PLAYER_DEATH("player_death"),
+    PLAYER_ATTACK_BLOCK("player_attack_block"),
+    PLAYER_USE_BLOCK("player_use_block"),
+    PLAYER_USE_ITEM("player_use_item"),
+    PLAYER_ATTACK_ENTITY("player_attack_entity"),
+    PLAYER_USE_ENTITY("player_use_entity"),
+    PLAYER_CHAT("player_chat"),
+    COMMAND_MESSAGE("command_message"),
+    GAME_MESSAGE("game_message"),
+    CONTAINER_INTERACTION_START("container_interaction_start"),
+    CONTAINER_INTERACTION_END("container_interaction_end"),
+    ADVANCEMENT_COMPLETE("advancement_complete"),
+    EXPERIENCE_UPDATE("experience_update"),
+    MERCHANT_INTERACTION("merchant_interaction"),
+
+    // Entities
+    ENTITY_DEATH("entity_death"),
+    ENTITY_ELYTRA_CHECK("entity_elytra_check"),
+    ENTITY_CHANGED_WORLD("entity_changed_world"),
+    ENTITY_START_SLEEPING("entity_start_sleeping"),
+    ENTITY_STOP_SLEEPING("entity_stop_sleeping"),
+    PROJECTILE_KILL("projectile_kill"),
+
+    // Worlds
+    WORLD_TICK_START("world_tick_start"),
+    WORLD_TICK_END("world_tick_end"),
+    WORLD_LOAD("world_load"),
+    WORLD_UNLOAD("world_unload"),
+    WEATHER_UPDATE("weather_update"),
+    REDSTONE_UPDATE("redstone_update"),
+
+    // Integrations
+    CUSTOM_COMMAND_EXECUTED("custom_command_executed"),
+    FILE_DOWNLOAD_COMPLETED("file_download_completed"),
+    BLUEMAP_SET_CREATED("bluemap_set_created"),
+    BLUEMAP_SET_REMOVED("bluemap_set_removed"),
+    BLUEMAP_SETS("bluemap_sets"),
+
+    // Produced by Denorite itself
+    RATE_LIMITED("rate_limited"),
+    TICK_STATS("tick_stats");
+
+    private static final Map<String, EventType> BY_NAME = new HashMap<>();
+
+    static {
+        for (EventType type : values()) {
+            BY_NAME.put(type.name, type);
+        }
+    }
+
+    private final String name;
+
+    EventType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the event type with the given wire name, or null if there is none
+     */
+    public static EventType fromName(String name) {
+        return BY_NAME.get(name);
+    }
+}
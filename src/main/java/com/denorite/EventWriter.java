@@ -0,0 +1,499 @@
+package com.denorite;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams one event straight into a reused per-thread buffer instead of building a Gson tree first.
+ * The JSON output matches what {@code JsonObject.toString()} produced for the same fields, and the binary
+ * output decodes to the same tree as {@link BinaryCodec#encode} (streamed maps always use a map16 header).
+ * Top-level fields outside the event type's {@link FieldProjections projection} are left out.
+ * <p>
+ * A writer is only valid between {@link #start} and the owning thread's next {@link #start}.
+ */
+public abstract class EventWriter {
+    /**
+     * Writes the fields of an event's data object.
+     */
+    @FunctionalInterface
+    public interface Body {
+        void write(EventWriter out);
+    }
+
+    private static final ThreadLocal<Json> JSON = ThreadLocal.withInitial(Json::new);
+    private static final ThreadLocal<Binary> BINARY = ThreadLocal.withInitial(Binary::new);
+
+    /**
+     * Returns this thread's writer for the negotiated protocol, positioned after the envelope's eventType.
+     */
+    static EventWriter start(EventType eventType) {
+        EventWriter writer = BinaryCodec.isEnabled() ? BINARY.get() : JSON.get();
+        writer.projection = FieldProjections.get(eventType);
+        writer.begin(eventType);
+        return writer;
+    }
+
+    // Top-level fields the backend asked for, null when it wants all of them
+    private Set<String> projection;
+    // Nesting below the data object, projections only apply at level 0
+    private int level;
+    // Open objects and arrays inside a field that was projected away
+    private int skipped;
+
+    /**
+     * Whether the backend wants this top-level field of the current event. Fields it does not want are
+     * dropped by the writer anyway; serializers check this first to skip computing expensive values.
+     */
+    public boolean wants(String name) {
+        return projection == null || projection.contains(name);
+    }
+
+    private boolean skip(String name) {
+        return skipped > 0 || (level == 0 && projection != null && !projection.contains(name));
+    }
+
+    public final EventWriter field(String name, String value) {
+        if (!skip(name)) {
+            writeField(name, value);
+        }
+        return this;
+    }
+
+    public final EventWriter field(String name, long value) {
+        if (!skip(name)) {
+            writeField(name, value);
+        }
+        return this;
+    }
+
+    public final EventWriter field(String name, double value) {
+        if (!skip(name)) {
+            writeField(name, value);
+        }
+        return this;
+    }
+
+    public final EventWriter field(String name, float value) {
+        if (!skip(name)) {
+            writeField(name, value);
+        }
+        return this;
+    }
+
+    public final EventWriter field(String name, boolean value) {
+        if (!skip(name)) {
+            writeField(name, value);
+        }
+        return this;
+    }
+
+    public final EventWriter field(String name, JsonElement value) {
+        if (!skip(name)) {
+            writeField(name, value);
+        }
+        return this;
+    }
+
+    public final EventWriter beginObject(String name) {
+        if (skip(name)) {
+            skipped++;
+        } else {
+            level++;
+            writeBeginObject(name);
+        }
+        return this;
+    }
+
+    /**
+     * Starts an object element inside an array.
+     */
+    public final EventWriter beginObject() {
+        if (skipped > 0) {
+            skipped++;
+        } else {
+            level++;
+            writeBeginObject();
+        }
+        return this;
+    }
+
+    public final EventWriter endObject() {
+        if (skipped > 0) {
+            skipped--;
+        } else {
+            level--;
+            writeEndObject();
+        }
+        return this;
+    }
+
+    public final EventWriter beginArray(String name) {
+        if (skip(name)) {
+            skipped++;
+        } else {
+            level++;
+            writeBeginArray(name);
+        }
+        return this;
+    }
+
+    public final EventWriter endArray() {
+        if (skipped > 0) {
+            skipped--;
+        } else {
+            level--;
+            writeEndArray();
+        }
+        return this;
+    }
+
+    /**
+     * Opens the data object, fields written afterwards belong to it until {@link #endData()}.
+     */
+    final void beginData() {
+        level = 0;
+        skipped = 0;
+        writeBeginData();
+    }
+
+    final void endData() {
+        writeEndData();
+    }
+
+    /**
+     * Writes the whole data value from an existing tree, for events that are not on a hot path.
+     */
+    final void treeData(JsonElement data) {
+        if (projection != null && data != null && data.isJsonObject()) {
+            JsonObject projected = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : data.getAsJsonObject().entrySet()) {
+                if (projection.contains(entry.getKey())) {
+                    projected.add(entry.getKey(), entry.getValue());
+                }
+            }
+            data = projected;
+        }
+        writeTreeData(data);
+    }
+
+    abstract void writeField(String name, String value);
+
+    abstract void writeField(String name, long value);
+
+    abstract void writeField(String name, double value);
+
+    abstract void writeField(String name, float value);
+
+    abstract void writeField(String name, boolean value);
+
+    abstract void writeField(String name, JsonElement value);
+
+    abstract void writeBeginObject(String name);
+
+    abstract void writeBeginObject();
+
+    abstract void writeBeginArray(String name);
+
+    abstract void writeEndObject();
+
+    abstract void writeEndArray();
+
+    abstract void writeBeginData();
+
+    abstract void writeEndData();
+
+    abstract void writeTreeData(JsonElement data);
+
+    abstract void begin(EventType eventType);
+
+    static final class Json extends EventWriter {
+        private static final String[] ESCAPES = new String[128];
+
+        static {
+            // Same escaping as Gson's JsonWriter without HTML-safe mode
+            for (int i = 0; i < 0x20; i++) {
+                ESCAPES[i] = String.format("\\u%04x", i);
+            }
+            ESCAPES['"'] = "\\\"";
+            ESCAPES['\\'] = "\\\\";
+            ESCAPES['\t'] = "\\t";
+            ESCAPES['\b'] = "\\b";
+            ESCAPES['\n'] = "\\n";
+            ESCAPES['\r'] = "\\r";
+            ESCAPES['\f'] = "\\f";
+        }
+
+        private final StringBuilder out = new StringBuilder(512);
+        private boolean needsComma;
+
+        @Override
+        void begin(EventType eventType) {
+            out.setLength(0);
+            out.append("{\"eventType\":");
+            string(eventType.getName());
+            out.append(",\"data\":");
+        }
+
+        @Override
+        void writeBeginData() {
+            out.append('{');
+            needsComma = false;
+        }
+
+        @Override
+        void writeEndData() {
+            out.append("}}");
+        }
+
+        @Override
+        void writeTreeData(JsonElement data) {
+            out.append(data == null ? "null" : data.toString()).append('}');
+        }
+
+        String toText() {
+            return out.toString();
+        }
+
+        private void name(String name) {
+            if (needsComma) {
+                out.append(',');
+            }
+            string(name);
+            out.append(':');
+            needsComma = true;
+        }
+
+        @Override
+        void writeField(String name, String value) {
+            name(name);
+            if (value == null) {
+                out.append("null");
+            } else {
+                string(value);
+            }
+        }
+
+        @Override
+        void writeField(String name, long value) {
+            name(name);
+            out.append(value);
+        }
+
+        @Override
+        void writeField(String name, double value) {
+            name(name);
+            out.append(value);
+        }
+
+        @Override
+        void writeField(String name, float value) {
+            name(name);
+            out.append(value);
+        }
+
+        @Override
+        void writeField(String name, boolean value) {
+            name(name);
+            out.append(value);
+        }
+
+        @Override
+        void writeField(String name, JsonElement value) {
+            name(name);
+            out.append(value == null ? "null" : value.toString());
+        }
+
+        @Override
+        void writeBeginObject(String name) {
+            name(name);
+            out.append('{');
+            needsComma = false;
+        }
+
+        @Override
+        void writeBeginObject() {
+            if (needsComma) {
+                out.append(',');
+            }
+            out.append('{');
+            needsComma = false;
+        }
+
+        @Override
+        void writeEndObject() {
+            out.append('}');
+            needsComma = true;
+        }
+
+        @Override
+        void writeBeginArray(String name) {
+            name(name);
+            out.append('[');
+            needsComma = false;
+        }
+
+        @Override
+        void writeEndArray() {
+            out.append(']');
+            needsComma = true;
+        }
+
+        private void string(String value) {
+            out.append('"');
+            int last = 0;
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                String escape;
+                if (c < 128) {
+                    escape = ESCAPES[c];
+                    if (escape == null) {
+                        continue;
+                    }
+                } else if (c == '\u2028') {
+                    escape = "\\u2028";
+                } else if (c == '\u2029') {
+                    escape = "\\u2029";
+                } else {
+                    continue;
+                }
+                out.append(value, last, i).append(escape);
+                last = i + 1;
+            }
+            out.append(value, last, length);
+            out.append('"');
+        }
+    }
+
+    static final class Binary extends EventWriter {
+        private static final int MAX_DEPTH = 16;
+
+        private final BinaryCodec.Output out = new BinaryCodec.Output(512);
+        // Header position and entry count of every open map or array
+        private final int[] headers = new int[MAX_DEPTH];
+        private final int[] counts = new int[MAX_DEPTH];
+        private int depth;
+
+        @Override
+        void begin(EventType eventType) {
+            out.reset();
+            depth = 0;
+            out.writeMapHeader(2);
+            out.writeString("eventType");
+            out.writeString(eventType.getName());
+            out.writeString("data");
+        }
+
+        @Override
+        void writeBeginData() {
+            openMap();
+        }
+
+        @Override
+        void writeEndData() {
+            close();
+        }
+
+        @Override
+        void writeTreeData(JsonElement data) {
+            BinaryCodec.write(out, data);
+        }
+
+        byte[] toBytes() {
+            return out.toByteArray();
+        }
+
+        private void openMap() {
+            headers[depth] = out.writeMapPlaceholder();
+            counts[depth] = 0;
+            depth++;
+        }
+
+        private void openArray() {
+            headers[depth] = out.writeArrayPlaceholder();
+            counts[depth] = 0;
+            depth++;
+        }
+
+        private void close() {
+            depth--;
+            out.patchSize(headers[depth], counts[depth]);
+        }
+
+        private void name(String name) {
+            counts[depth - 1]++;
+            out.writeString(name);
+        }
+
+        @Override
+        void writeField(String name, String value) {
+            name(name);
+            if (value == null) {
+                out.writeNil();
+            } else {
+                out.writeString(value);
+            }
+        }
+
+        @Override
+        void writeField(String name, long value) {
+            name(name);
+            out.writeLong(value);
+        }
+
+        @Override
+        void writeField(String name, double value) {
+            name(name);
+            out.writeDouble(value);
+        }
+
+        @Override
+        void writeField(String name, float value) {
+            name(name);
+            out.writeDouble(value);
+        }
+
+        @Override
+        void writeField(String name, boolean value) {
+            name(name);
+            out.writeBoolean(value);
+        }
+
+        @Override
+        void writeField(String name, JsonElement value) {
+            name(name);
+            BinaryCodec.write(out, value);
+        }
+
+        @Override
+        void writeBeginObject(String name) {
+            name(name);
+            openMap();
+        }
+
+        @Override
+        void writeBeginObject() {
+            counts[depth - 1]++;
+            openMap();
+        }
+
+        @Override
+        void writeEndObject() {
+            close();
+        }
+
+        @Override
+        void writeBeginArray(String name) {
+            name(name);
+            openArray();
+        }
+
+        @Override
+        void writeEndArray() {
+            close();
+        }
+    }
+}
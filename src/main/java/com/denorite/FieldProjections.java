@@ -0,0 +1,86 @@
+package com.denorite;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per event type, the top-level data fields the backend wants. {@link EventWriter} drops every other
+ * field, and serializers ask {@link EventWriter#wants} before computing expensive values such as
+ * death messages. Event types without a projection carry all their fields.
+ */
+public class FieldProjections {
+    private static final AtomicReferenceArray<Set<String>> projections = new AtomicReferenceArray<>(EventType.values().length);
+
+    /**
+     * @return the projected field names, or null if the event type carries all fields
+     */
+    public static Set<String> get(EventType type) {
+        return projections.get(type.ordinal());
+    }
+
+    /**
+     * Drops every projection, called whenever a new backend connection opens.
+     */
+    public static void reset() {
+        for (int i = 0; i < projections.length(); i++) {
+            projections.set(i, null);
+        }
+    }
+
+    /**
+     * Handles a projection message or handshake option: an object mapping event names to an array of
+     * field names, or to null to send all fields again.
+     */
+    public static String update(JsonElement data) {
+        if (!data.isJsonObject()) {
+            throw new IllegalArgumentException("Projection data must be an object of event type to field names");
+        }
+
+        // Validate everything before applying anything
+        Map<String, JsonElement> fields = data.getAsJsonObject().asMap();
+        for (Map.Entry<String, JsonElement> entry : fields.entrySet()) {
+            if (EventType.fromName(entry.getKey()) == null) {
+                throw new IllegalArgumentException("Unknown event type: " + entry.getKey());
+            }
+            if (!entry.getValue().isJsonNull() && !entry.getValue().isJsonArray()) {
+                throw new IllegalArgumentException("Projection for " + entry.getKey() + " must be an array of field names or null");
+            }
+        }
+
+        for (Map.Entry<String, JsonElement> entry : fields.entrySet()) {
+            EventType type = EventType.fromName(entry.getKey());
+            if (entry.getValue().isJsonNull()) {
+                projections.set(type.ordinal(), null);
+                continue;
+            }
+
+            Set<String> names = new HashSet<>();
+            for (JsonElement field : entry.getValue().getAsJsonArray()) {
+                names.add(field.getAsString());
+            }
+            projections.set(type.ordinal(), Set.copyOf(names));
+        }
+
+        return "Updated projections for " + fields.size() + " event type(s)";
+    }
+
+    public static JsonObject getProjections() {
+        JsonObject result = new JsonObject();
+        EventType[] types = EventType.values();
+        for (int i = 0; i < types.length; i++) {
+            Set<String> fields = projections.get(i);
+            if (fields != null) {
+                JsonArray names = new JsonArray();
+                fields.forEach(names::add);
+                result.add(types[i].getName(), names);
+            }
+        }
+        return result;
+    }
+}
@@ -9,6 +9,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -44,12 +48,38 @@ public class FileSystemHandler {
         }
     }
 
+    public static void registerHandlers() {
+        // Downloads and recursive deletes can take a while, keep a few lane threads free for the rest
+        MessageHandlers.register("files", MessageHandlers.Runs.IO_LANE, 4, context -> {
+            InboundMessage message = context.getMessage();
+            if (!message.has("subcommand")) {
+                throw new IllegalArgumentException("Files command requires 'subcommand' field");
+            }
+            if (!message.has("arguments") || !message.get("arguments").isJsonObject()) {
+                throw new IllegalArgumentException("Files command requires 'arguments' field");
+            }
+            String subcommand = message.get("subcommand").getAsString();
+            JsonObject arguments = message.get("arguments").getAsJsonObject();
+            if (context.getStream() != null && subcommand.equals("list")) {
+                // Large directories are written out entry by entry instead of being built in memory
+                String path;
+                try {
+                    path = listPath(arguments);
+                } catch (IllegalArgumentException e) {
+                    return listFailed(e);
+                }
+                return streamFileList(path, context.getStream());
+            }
+            return handleFileCommand(subcommand, arguments).toString();
+        });
+    }
+
     public static JsonObject handleFileCommand(String subcommand, JsonObject args) {
         JsonObject response = new JsonObject();
         try {
             response = switch (subcommand) {
                 case "getGameDir" -> getGameDirectory();
-                case "list" -> listFiles(args.get("path").getAsString());
+                case "list" -> listFiles(listPath(args));
                 case "download" -> downloadFile(
                         args.get("url").getAsString(),
                         args.get("targetPath").getAsString(),
@@ -77,6 +107,13 @@ public class FileSystemHandler {
         return response;
     }
 
+    private static String listPath(JsonObject args) {
+        if (!args.has("path") || !args.get("path").isJsonPrimitive()) {
+            throw new IllegalArgumentException("Files list requires 'path' argument");
+        }
+        return args.get("path").getAsString();
+    }
+
     private static JsonObject listFiles(String pathStr) throws IOException {
         File path = new File(pathStr);
         JsonObject response = new JsonObject();
@@ -98,6 +135,58 @@ public class FileSystemHandler {
         return response;
     }
 
+    /**
+     * Streaming variant of {@code list}: entries are read lazily and written to the stream one by one, so the
+     * listing never has to fit in memory. Returns the closing part of the result, the text is the same as
+     * {@code handleFileCommand("list", ...)} would produce.
+     */
+    public static String streamFileList(String pathStr, ResponseStream stream) throws IOException {
+        Path path = Path.of(pathStr);
+        DirectoryStream<Path> entries = null;
+        if (Files.isDirectory(path)) {
+            // Opened before anything is sent, so a directory that cannot be read fails like the unstreamed list
+            try {
+                entries = Files.newDirectoryStream(path);
+            } catch (IOException | SecurityException e) {
+                return listFailed(e);
+            }
+        }
+
+        stream.write("{\"files\":[");
+        if (entries == null) {
+            return "],\"success\":true}";
+        }
+        try (entries) {
+            boolean first = true;
+            for (Path entryPath : entries) {
+                File entry = entryPath.toFile();
+                JsonObject file = new JsonObject();
+                file.addProperty("name", entry.getName());
+                file.addProperty("isDirectory", entry.isDirectory());
+                file.addProperty("size", entry.length());
+                file.addProperty("lastModified", entry.lastModified());
+                if (!first) {
+                    stream.write(",");
+                }
+                stream.write(file.toString());
+                first = false;
+            }
+        } catch (DirectoryIteratorException | SecurityException e) {
+            // Entries already sent cannot be taken back, the result still ends as a complete failed listing
+            return "]," + listFailed(e instanceof DirectoryIteratorException ? e.getCause() : e).substring(1);
+        }
+        return "],\"success\":true}";
+    }
+
+    // The same failure result handleFileCommand gives
+    private static String listFailed(Throwable error) {
+        LOGGER.error("Error handling file command: " + error.getMessage());
+        JsonObject response = new JsonObject();
+        response.addProperty("success", false);
+        response.addProperty("error", error.getMessage());
+        return response.toString();
+    }
+
     private static JsonObject downloadFile(String urlStr, String targetPathStr, boolean unzip) throws IOException {
         File targetPath = new File(targetPathStr);
         JsonObject response = new JsonObject();
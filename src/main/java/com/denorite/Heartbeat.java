@@ -0,0 +1,179 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pings one connection at a fixed interval and measures the round trip from the pong. A half-open
+ * connection never reports an error on its own, so when too many pings in a row go unanswered the
+ * connection is torn down and the owner reconnects instead of sending into it for minutes.
+ */
+public class Heartbeat {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Heartbeat");
+    // Round trips are reported for the last complete window of this length
+    private static final long RTT_WINDOW_MS = 5 * 60 * 1000;
+
+    private static final Map<String, Heartbeat> channels = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final long intervalMs;
+    private final int missThreshold;
+    private final LatencyHistogram rttMicros = new LatencyHistogram();
+    private final LongAdder pings = new LongAdder();
+    private final LongAdder pongs = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder deadConnections = new LongAdder();
+    private volatile LatencyHistogram.Snapshot lastWindow;
+    private volatile long lastRttMicros = -1;
+
+    // Guarded by this
+    private WebSocket webSocket;
+    private ScheduledFuture<?> task;
+    private long outstandingSince;
+    private int missedInRow;
+    private long windowStartedAt = System.currentTimeMillis();
+
+    private Heartbeat(String channel, DenoriteConfig config) {
+        this.channel = channel;
+        this.intervalMs = config.getHeartbeatIntervalMs();
+        this.missThreshold = Math.max(1, config.getHeartbeatMissThreshold());
+    }
+
+    public static Heartbeat forChannel(String channel, DenoriteConfig config) {
+        return channels.computeIfAbsent(channel, name -> new Heartbeat(name, config));
+    }
+
+    /**
+     * Starts pinging a freshly opened connection, replacing whatever connection was pinged before.
+     *
+     * @param readsPaused whether the owner has stopped reading from the connection; no pongs are delivered
+     *                    then, so pinging is suspended instead of counting misses
+     * @param onDead      called once, after the connection was aborted for missing too many pongs
+     */
+    public synchronized void start(WebSocket webSocket, BooleanSupplier readsPaused, Runnable onDead) {
+        stop();
+        if (intervalMs <= 0) {
+            return;
+        }
+        this.webSocket = webSocket;
+        outstandingSince = 0;
+        missedInRow = 0;
+        task = Denorite.scheduler.scheduleAtFixedRate(() -> beat(webSocket, readsPaused, onDead), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        webSocket = null;
+    }
+
+    private void beat(WebSocket pinged, BooleanSupplier readsPaused, Runnable onDead) {
+        synchronized (this) {
+            if (pinged != webSocket) {
+                return;
+            }
+            if (readsPaused.getAsBoolean()) {
+                // A backpressured connection is busy, not dead; start counting again once reads resume
+                outstandingSince = 0;
+                missedInRow = 0;
+                return;
+            }
+            if (outstandingSince != 0) {
+                misses.increment();
+                if (++missedInRow >= missThreshold) {
+                    LOGGER.warn("No pong on the " + channel + " channel for " + missedInRow + " pings in a row, reconnecting");
+                    deadConnections.increment();
+                    stop();
+                    pinged.abort();
+                    // Called outside the lock below, the owner's disconnect handling may stop this heartbeat again
+                    pinged = null;
+                }
+            }
+            if (pinged != null) {
+                long now = System.nanoTime();
+                outstandingSince = now;
+                pings.increment();
+                pinged.sendPing(ByteBuffer.allocate(Long.BYTES).putLong(0, now)).exceptionally(error -> {
+                    // A ping that never went out cannot be missed, for example one that found a send in progress
+                    LOGGER.debug("Failed to ping the " + channel + " channel: " + error.getMessage());
+                    pingFailed(now);
+                    return null;
+                });
+                return;
+            }
+        }
+        onDead.run();
+    }
+
+    private synchronized void pingFailed(long sentAt) {
+        if (outstandingSince == sentAt) {
+            outstandingSince = 0;
+        }
+    }
+
+    /**
+     * Called by the listener for every pong received on the connection.
+     */
+    public void pong(ByteBuffer message) {
+        if (message.remaining() != Long.BYTES) {
+            // Unsolicited or not ours
+            return;
+        }
+        long sentAt = message.getLong(message.position());
+        long rtt = (System.nanoTime() - sentAt) / 1000;
+        if (rtt < 0) {
+            return;
+        }
+        synchronized (this) {
+            // Any pong proves the connection alive, even a late one for an earlier ping
+            missedInRow = 0;
+            if (sentAt == outstandingSince) {
+                outstandingSince = 0;
+            }
+            long now = System.currentTimeMillis();
+            if (now - windowStartedAt >= RTT_WINDOW_MS) {
+                lastWindow = rttMicros.snapshotAndReset();
+                windowStartedAt = now;
+            }
+        }
+        pongs.increment();
+        lastRttMicros = rtt;
+        rttMicros.record(rtt);
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        channels.forEach((channel, heartbeat) -> metrics.add(channel, heartbeat.channelMetrics()));
+        return metrics;
+    }
+
+    private JsonObject channelMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("intervalMs", intervalMs);
+        metrics.addProperty("missThreshold", missThreshold);
+        metrics.addProperty("pings", pings.sum());
+        metrics.addProperty("pongs", pongs.sum());
+        metrics.addProperty("misses", misses.sum());
+        metrics.addProperty("deadConnections", deadConnections.sum());
+        long last = lastRttMicros;
+        if (last >= 0) {
+            metrics.addProperty("lastRttMs", last / 1000.0);
+        }
+        // Until the first window completes, the one in progress
+        LatencyHistogram.Snapshot window = lastWindow;
+        metrics.add("rttMs", (window != null ? window : rttMicros.snapshot()).toJson(1000.0));
+        return metrics;
+    }
+}
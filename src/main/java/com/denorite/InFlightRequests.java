@@ -0,0 +1,164 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Tracks backend requests from the moment they arrive until their response is sent.
+ * A request is answered exactly once, by whichever comes first: its own result, its optional
+ * {@code deadlineMs} running out, or a {@code cancel} message naming its id. A timed out or cancelled
+ * request also gives up its work, queued tasks are skipped and running lane tasks are interrupted.
+ */
+public class InFlightRequests {
+    private static final Map<String, Request> requests = new ConcurrentHashMap<>();
+    private static final LongAdder completed = new LongAdder();
+    private static final LongAdder timedOut = new LongAdder();
+    private static final LongAdder cancelled = new LongAdder();
+
+    public static final class Request {
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+        private volatile Future<?> task;
+        private volatile CompletableFuture<String> work;
+        private volatile boolean discarded;
+
+        /**
+         * Completes once with the result, or with a {@link TimeoutException} or {@link CancellationException}.
+         */
+        public CompletableFuture<String> getResponse() {
+            return response;
+        }
+
+        /**
+         * The lane task processing this request, interrupted if the request is abandoned.
+         */
+        void attach(Future<?> task) {
+            this.task = task;
+            if (response.isDone()) {
+                task.cancel(true);
+            }
+        }
+
+        /**
+         * Hands over the request's outcome. Ignored, and the work cancelled, if the request was already answered.
+         */
+        void complete(CompletableFuture<String> work) {
+            this.work = work;
+            if (response.isDone()) {
+                work.cancel(false);
+                return;
+            }
+            work.whenComplete((result, error) -> {
+                if (error == null) {
+                    response.complete(result);
+                } else {
+                    response.completeExceptionally(error);
+                }
+            });
+        }
+
+        /**
+         * Whether the request finished with its own result rather than an error, timeout or cancellation.
+         */
+        boolean succeeded() {
+            return response.isDone() && !response.isCompletedExceptionally();
+        }
+
+        /**
+         * Stops tracking a request that will not run after all, without answering it.
+         */
+        void discard() {
+            discarded = true;
+            response.cancel(false);
+        }
+
+        private void abandon() {
+            Future<?> task = this.task;
+            if (task != null) {
+                task.cancel(true);
+            }
+            CompletableFuture<String> work = this.work;
+            if (work != null) {
+                work.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Starts tracking a request. Returns null if a request with this id is still in flight.
+     *
+     * @param deadlineMs time the request may take before it is answered with a timeout, 0 for no deadline
+     * @param onResponse answers the request; runs once, while the id still counts as in flight
+     */
+    public static Request register(String id, long deadlineMs, BiConsumer<String, Throwable> onResponse) {
+        Request request = new Request();
+        if (requests.putIfAbsent(id, request) != null) {
+            return null;
+        }
+
+        request.response.whenComplete((result, error) -> {
+            if (request.discarded) {
+                requests.remove(id, request);
+                InboundFlowControl.requestFinished();
+                return;
+            }
+            try {
+                onResponse.accept(result, error);
+            } finally {
+                requests.remove(id, request);
+            }
+            if (error instanceof TimeoutException) {
+                timedOut.increment();
+                request.abandon();
+            } else if (error instanceof CancellationException) {
+                cancelled.increment();
+                request.abandon();
+            } else {
+                completed.increment();
+            }
+            InboundFlowControl.requestFinished();
+        });
+        if (deadlineMs > 0) {
+            request.response.orTimeout(deadlineMs, TimeUnit.MILLISECONDS);
+        }
+        return request;
+    }
+
+    public static int count() {
+        return requests.size();
+    }
+
+    /**
+     * Cancels the in-flight request with this id. Returns false if there is none.
+     */
+    public static boolean cancel(String id) {
+        Request request = requests.get(id);
+        return request != null && request.response.cancel(false);
+    }
+
+    /**
+     * The error message for a request that did not complete normally.
+     */
+    public static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof CancellationException) {
+            return "cancelled";
+        }
+        return cause.getMessage();
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("inFlight", requests.size());
+        metrics.addProperty("completed", completed.sum());
+        metrics.addProperty("timedOut", timedOut.sum());
+        metrics.addProperty("cancelled", cancelled.sum());
+        return metrics;
+    }
+}
@@ -0,0 +1,86 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.WebSocket;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asks the WebSocket for more inbound frames only while the backlog of requests in flight is below a
+ * high-water mark. Once it is reached, reading stops until the backlog drains to the low-water mark, so a
+ * flooding backend is slowed down by TCP instead of piling requests up on our heap.
+ */
+public class InboundFlowControl {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-FlowControl");
+
+    private static volatile WebSocket webSocket;
+    private static final AtomicBoolean paused = new AtomicBoolean();
+    private static final LongAdder pauses = new LongAdder();
+    private static int highWaterMark;
+    private static int lowWaterMark;
+
+    public static void initialize(DenoriteConfig config) {
+        highWaterMark = Math.max(1, config.getInboundHighWaterMark());
+        lowWaterMark = Math.min(config.getInboundLowWaterMark(), highWaterMark - 1);
+    }
+
+    /**
+     * Starts reading from a freshly opened connection.
+     */
+    public static void attach(WebSocket webSocket) {
+        InboundFlowControl.webSocket = webSocket;
+        paused.set(false);
+        webSocket.request(1);
+    }
+
+    /**
+     * Called by the listener after each frame. Fragments of a message are always read on; after the last
+     * fragment the next message is only requested if the backlog allows it.
+     */
+    public static void frameHandled(WebSocket webSocket, boolean last) {
+        if (!last || InFlightRequests.count() < highWaterMark) {
+            webSocket.request(1);
+            return;
+        }
+
+        paused.set(true);
+        pauses.increment();
+        LOGGER.warn("Pausing inbound reads, " + InFlightRequests.count() + " requests in flight");
+        // A request may have finished between the check and setting the flag
+        resumeIfDrained();
+    }
+
+    public static boolean isPaused() {
+        return paused.get();
+    }
+
+    /**
+     * Called whenever a request has been answered.
+     */
+    public static void requestFinished() {
+        if (paused.get()) {
+            resumeIfDrained();
+        }
+    }
+
+    private static void resumeIfDrained() {
+        if (InFlightRequests.count() <= lowWaterMark && paused.compareAndSet(true, false)) {
+            WebSocket current = webSocket;
+            if (current != null) {
+                current.request(1);
+            }
+        }
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("paused", paused.get());
+        metrics.addProperty("pauses", pauses.sum());
+        metrics.addProperty("highWaterMark", highWaterMark);
+        metrics.addProperty("lowWaterMark", lowWaterMark);
+        return metrics;
+    }
+}
@@ -0,0 +1,78 @@
+package com.denorite;
+
+import java.nio.CharBuffer;
+
+/**
+ * Reassembles the fragments of one inbound text message into a reused char array.
+ * Owned by a single connection's listener, which the WebSocket client calls one fragment at a time,
+ * so no locking is needed. Messages above the size cap are discarded instead of growing without bound.
+ */
+final class InboundFrameBuffer {
+    private static final int INITIAL_CAPACITY = 4096;
+    // Larger arrays are released after use so one huge message does not pin its buffer forever
+    private static final int RETAINED_CAPACITY = 256 * 1024;
+
+    private final int maxChars;
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length;
+    private boolean overflowed;
+
+    InboundFrameBuffer(int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Appends a fragment. Returns false if the message is over the cap, everything up to the last
+     * fragment is then dropped.
+     */
+    boolean append(CharSequence data) {
+        if (overflowed) {
+            return false;
+        }
+
+        int needed = length + data.length();
+        if (needed > maxChars) {
+            overflowed = true;
+            length = 0;
+            return false;
+        }
+        if (needed > chars.length) {
+            char[] grown = new char[Math.min(maxChars, Math.max(needed, chars.length * 2))];
+            System.arraycopy(chars, 0, grown, 0, length);
+            chars = grown;
+        }
+
+        if (data instanceof CharBuffer buffer) {
+            // The WebSocket client hands us CharBuffers, duplicate so its position is left alone
+            buffer.duplicate().get(chars, length, buffer.remaining());
+        } else if (data instanceof String string) {
+            string.getChars(0, string.length(), chars, length);
+        } else {
+            for (int i = 0; i < data.length(); i++) {
+                chars[length + i] = data.charAt(i);
+            }
+        }
+        length = needed;
+        return true;
+    }
+
+    boolean isOverflowed() {
+        return overflowed;
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    int length() {
+        return length;
+    }
+
+    void reset() {
+        length = 0;
+        overflowed = false;
+        if (chars.length > RETAINED_CAPACITY) {
+            chars = new char[INITIAL_CAPACITY];
+        }
+    }
+}
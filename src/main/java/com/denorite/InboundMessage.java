@@ -0,0 +1,137 @@
+package com.denorite;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A request from the backend. Text frames are parsed with a streaming reader straight out of the
+ * connection's receive buffer: {@code id} and {@code type} are read as plain strings, only {@code data}
+ * and the rare extra fields (such as {@code subcommand} for files) become Gson trees.
+ */
+public final class InboundMessage {
+    private final String id;
+    private final String type;
+    private final JsonElement data;
+    // Top-level fields other than id, type and data, null when there are none
+    private final JsonObject extras;
+
+    private InboundMessage(String id, String type, JsonElement data, JsonObject extras) {
+        this.id = id;
+        this.type = type;
+        this.data = data;
+        this.extras = extras;
+    }
+
+    /**
+     * Parses one complete JSON message from {@code chars[0, length)} without copying it.
+     */
+    public static InboundMessage parse(char[] chars, int length) throws IOException {
+        JsonReader reader = new JsonReader(new CharArrayReader(chars, 0, length));
+        String id = null;
+        String type = null;
+        JsonElement data = null;
+        JsonObject extras = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "id" -> id = readString(reader);
+                case "type" -> type = readString(reader);
+                case "data" -> data = JsonParser.parseReader(reader);
+                default -> {
+                    if (extras == null) {
+                        extras = new JsonObject();
+                    }
+                    extras.add(name, JsonParser.parseReader(reader));
+                }
+            }
+        }
+        reader.endObject();
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new IOException("Unexpected content after message");
+        }
+        return new InboundMessage(id, type, data, extras);
+    }
+
+    /**
+     * Wraps a message that already is a tree, as decoded from a binary frame.
+     */
+    public static InboundMessage of(JsonObject message) {
+        JsonObject extras = null;
+        for (Map.Entry<String, JsonElement> entry : message.entrySet()) {
+            switch (entry.getKey()) {
+                case "id", "type", "data" -> {
+                }
+                default -> {
+                    if (extras == null) {
+                        extras = new JsonObject();
+                    }
+                    extras.add(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return new InboundMessage(asString(message.get("id")), asString(message.get("type")), message.get("data"), extras);
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        // Also accepts numbers, ids are sometimes sent as counters
+        return reader.nextString();
+    }
+
+    private static String asString(JsonElement element) {
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Whether the message has this top-level field, with the same meaning as {@link JsonObject#has}.
+     */
+    public boolean has(String name) {
+        return switch (name) {
+            case "id" -> id != null;
+            case "type" -> type != null;
+            case "data" -> data != null;
+            default -> extras != null && extras.has(name);
+        };
+    }
+
+    /**
+     * @return the {@code data} field or one of the extra fields, null if absent
+     */
+    public JsonElement get(String name) {
+        if (name.equals("data")) {
+            return data;
+        }
+        return extras != null ? extras.get(name) : null;
+    }
+
+    @Override
+    public String toString() {
+        JsonObject json = extras != null ? extras.deepCopy() : new JsonObject();
+        json.addProperty("id", id);
+        json.addProperty("type", type);
+        if (data != null) {
+            json.add("data", data);
+        }
+        return json.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.denorite;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the strings event serializers would otherwise rebuild on every event:
+ * dimension ids, {@code Block.toString()}, {@code EntityType.toString()} and {@code Item.toString()}.
+ * All keys are registry singletons, so the caches stay as small as the registries.
+ */
+public class InternedNames {
+    private static final Map<RegistryKey<World>, String> dimensions = new ConcurrentHashMap<>();
+    private static final Map<Object, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * @return {@code world.getRegistryKey().getValue().toString()}
+     */
+    public static String dimension(World world) {
+        RegistryKey<World> key = world.getRegistryKey();
+        String name = dimensions.get(key);
+        if (name == null) {
+            name = key.getValue().toString();
+            dimensions.putIfAbsent(key, name);
+        }
+        return name;
+    }
+
+    /**
+     * @return {@code value.toString()} for a block, entity type or item
+     */
+    public static String of(Object value) {
+        String name = names.get(value);
+        if (name == null) {
+            name = value.toString();
+            names.putIfAbsent(value, name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,141 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram in the style of HdrHistogram: every power of two is split into
+ * 32 linear sub-buckets, so any recorded value is reported within about 3% of its true value.
+ * Recording is lock-free and allocation-free and can happen from any thread.
+ * Values are non-negative longs in whatever unit the caller picks; values beyond 2^40 are clamped.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    public void record(long value) {
+        value = Math.max(0, Math.min(value, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        sum.addAndGet(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Copies the current counts without clearing them.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, max.get(), sum.get());
+    }
+
+    /**
+     * Copies the current counts and starts a new interval. Values recorded concurrently land in
+     * either this snapshot or the next one, never in both.
+     */
+    public Snapshot snapshotAndReset() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.getAndSet(i, 0);
+        }
+        return new Snapshot(copy, max.getAndSet(0), sum.getAndSet(0));
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    // Midpoint of the range of values that map to this bucket
+    private static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long max;
+        private final long sum;
+        private final long count;
+
+        private Snapshot(long[] counts, long max, long sum) {
+            this.counts = counts;
+            this.max = max;
+            this.sum = sum;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(valueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Summary with count, mean, p50, p90, p99 and max, each value divided by {@code unit}
+         * (for example 1000 to report microseconds as milliseconds).
+         */
+        public JsonObject toJson(double unit) {
+            JsonObject json = new JsonObject();
+            json.addProperty("count", count);
+            json.addProperty("mean", getMean() / unit);
+            json.addProperty("p50", getValueAtPercentile(50) / unit);
+            json.addProperty("p90", getValueAtPercentile(90) / unit);
+            json.addProperty("p99", getValueAtPercentile(99) / unit);
+            json.addProperty("max", max / unit);
+            return json;
+        }
+    }
+}
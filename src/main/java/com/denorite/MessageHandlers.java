@@ -0,0 +1,256 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of backend request handlers, keyed by message type. Each module registers the types it serves,
+ * along with where the handler runs and how many requests of that type may be in flight at once.
+ * Requests over the limit are rejected right away, so one expensive type cannot crowd out the others.
+ * Latency (from arrival to response) and errors are recorded per type.
+ */
+public class MessageHandlers {
+    public enum Runs {
+        // As a server task, within the per-tick budget; for anything that touches game state
+        SERVER_THREAD("server"),
+        FAST_LANE("fast"),
+        IO_LANE("io");
+
+        private final String name;
+
+        Runs(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        String handle(Context context) throws Exception;
+    }
+
+    /**
+     * A handler that finishes later, for example by composing server tasks. Runs on a lane only.
+     */
+    @FunctionalInterface
+    public interface AsyncHandler {
+        CompletableFuture<String> handle(Context context) throws Exception;
+    }
+
+    public static final class Context {
+        private final InboundMessage message;
+        private final ResponseStream stream;
+        private volatile Runnable afterResponse;
+
+        Context(InboundMessage message, ResponseStream stream) {
+            this.message = message;
+            this.stream = stream;
+        }
+
+        public InboundMessage getMessage() {
+            return message;
+        }
+
+        /**
+         * @return the stream to write the result to, or null if the backend did not ask for streaming
+         */
+        public ResponseStream getStream() {
+            return stream;
+        }
+
+        /**
+         * Runs an action once a successful response has been queued, such as a protocol switch that must
+         * not apply to the response itself.
+         */
+        public void afterResponse(Runnable action) {
+            this.afterResponse = action;
+        }
+
+        Runnable getAfterResponse() {
+            return afterResponse;
+        }
+    }
+
+    private static final class Registration {
+        final String type;
+        final Runs runs;
+        final int maxConcurrency;
+        final Handler handler;
+        final AsyncHandler asyncHandler;
+        final Semaphore permits;
+        final LatencyHistogram latencyMicros = new LatencyHistogram();
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Registration(String type, Runs runs, int maxConcurrency, Handler handler, AsyncHandler asyncHandler) {
+            this.type = type;
+            this.runs = runs;
+            this.maxConcurrency = maxConcurrency;
+            this.handler = handler;
+            this.asyncHandler = asyncHandler;
+            this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        }
+    }
+
+    /**
+     * The per-type permit one request holds from dispatch until its handler has finished, or until it is
+     * certain the handler never starts. Answering a request early does not stop a running handler, so the
+     * permit cannot follow the response.
+     */
+    private static final class Permit {
+        private static final int NOT_STARTED = 0;
+        private static final int RUNNING = 1;
+        private static final int RELEASED = 2;
+
+        private final Semaphore permits;
+        private final AtomicInteger state = new AtomicInteger(NOT_STARTED);
+
+        Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        /**
+         * @return false if the permit was already given back, the handler must not run then
+         */
+        boolean start() {
+            return state.compareAndSet(NOT_STARTED, RUNNING);
+        }
+
+        void finish() {
+            if (state.getAndSet(RELEASED) != RELEASED && permits != null) {
+                permits.release();
+            }
+        }
+
+        void releaseIfNotStarted() {
+            if (state.compareAndSet(NOT_STARTED, RELEASED) && permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private static final Map<String, Registration> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConcurrency requests of this type allowed in flight at once, 0 for no limit
+     */
+    public static void register(String type, Runs runs, int maxConcurrency, Handler handler) {
+        add(new Registration(type, runs, maxConcurrency, handler, null));
+    }
+
+    public static void registerAsync(String type, Runs runs, int maxConcurrency, AsyncHandler handler) {
+        if (runs == Runs.SERVER_THREAD) {
+            throw new IllegalArgumentException("Async handlers run on a lane, " + type + " cannot run on the server thread");
+        }
+        add(new Registration(type, runs, maxConcurrency, null, handler));
+    }
+
+    private static void add(Registration registration) {
+        if (handlers.putIfAbsent(registration.type, registration) != null) {
+            throw new IllegalArgumentException("A handler for " + registration.type + " is already registered");
+        }
+    }
+
+    /**
+     * Runs the handler for the request's type and hands its outcome to the request.
+     */
+    static void dispatch(Context context, InFlightRequests.Request request) {
+        Registration registration = handlers.get(context.getMessage().getType());
+        if (registration == null) {
+            request.complete(CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Unknown message type: " + context.getMessage().getType())));
+            return;
+        }
+
+        registration.requests.increment();
+        if (registration.permits != null && !registration.permits.tryAcquire()) {
+            registration.rejected.increment();
+            request.complete(CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Server busy: too many concurrent " + registration.type + " requests")));
+            return;
+        }
+        Permit permit = new Permit(registration.permits);
+        long started = System.nanoTime();
+        request.getResponse().whenComplete((result, error) -> {
+            // A request answered before its handler started (timed out, cancelled or rejected by the lane)
+            // never runs it; one whose handler is running keeps the permit until the handler returns
+            permit.releaseIfNotStarted();
+            registration.latencyMicros.record((System.nanoTime() - started) / 1000);
+            if (error != null) {
+                registration.errors.increment();
+            }
+        });
+
+        if (registration.runs == Runs.SERVER_THREAD) {
+            request.complete(ServerTaskQueue.submit(() -> {
+                if (!permit.start()) {
+                    throw new CancellationException();
+                }
+                try {
+                    return registration.handler.handle(context);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    permit.finish();
+                }
+            }));
+            return;
+        }
+
+        RequestExecutor.Lane lane = registration.runs == Runs.IO_LANE ? RequestExecutor.Lane.IO : RequestExecutor.Lane.FAST;
+        Future<?> task = RequestExecutor.submit(lane, () -> {
+            if (!permit.start()) {
+                return;
+            }
+            CompletableFuture<String> work = invoke(registration, context);
+            work.whenComplete((result, error) -> permit.finish());
+            // The request gets a copy, so abandoning it does not count an async handler's work as finished
+            request.complete(work.copy());
+        });
+        if (task == null) {
+            request.complete(CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Server busy: " + lane.getName() + " request queue is full")));
+        } else {
+            request.attach(task);
+        }
+    }
+
+    private static CompletableFuture<String> invoke(Registration registration, Context context) {
+        try {
+            if (registration.asyncHandler != null) {
+                return registration.asyncHandler.handle(context);
+            }
+            return CompletableFuture.completedFuture(registration.handler.handle(context));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        handlers.forEach((type, registration) -> {
+            JsonObject handlerMetrics = new JsonObject();
+            handlerMetrics.addProperty("runs", registration.runs.getName());
+            handlerMetrics.addProperty("maxConcurrency", registration.maxConcurrency);
+            if (registration.permits != null) {
+                handlerMetrics.addProperty("inFlight", registration.maxConcurrency - registration.permits.availablePermits());
+            }
+            handlerMetrics.addProperty("requests", registration.requests.sum());
+            handlerMetrics.addProperty("errors", registration.errors.sum());
+            handlerMetrics.addProperty("rejected", registration.rejected.sum());
+            handlerMetrics.add("latencyMs", registration.latencyMicros.snapshot().toJson(1000.0));
+            metrics.add(type, handlerMetrics);
+        });
+        return metrics;
+    }
+}
@@ -0,0 +1,357 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer queue for everything Denorite sends to the backend.
+ * The JDK WebSocket rejects a send while the previous one is still pending, so all
+ * frames go through here and one writer thread sends them one after another.
+ * Responses are never dropped and are sent before queued events.
+ * With a separate telemetry channel, events get their own writer thread and socket,
+ * so a burst of events never holds up a response.
+ */
+public class OutboundQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Outbound");
+    private static final String RESPONSE_TYPE = "response";
+    private static final String RESPONSE_CHUNK_TYPE = "response_chunk";
+    private static final String REPLAY_TYPE = "spooled_event";
+    // Streamed response chunks waiting for the writer, producers wait beyond this
+    private static final int MAX_QUEUED_CHUNKS = 8;
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        BLOCK;
+
+        static OverflowPolicy fromConfig(String value) {
+            return switch (value.toLowerCase()) {
+                case "drop_newest" -> DROP_NEWEST;
+                case "block" -> BLOCK;
+                default -> DROP_OLDEST;
+            };
+        }
+    }
+
+    // Exactly one of text and binary is set
+    private record Frame(String eventType, String text, byte[] binary) {
+    }
+
+    // The socket a writer sends on and what its owner does when the writer gives up on it
+    private record Connection(WebSocket socket, Runnable onDead) {
+    }
+
+    private record Writer(String name, boolean sendsResponses, boolean sendsEvents, Supplier<WebSocket> socket, Semaphore pending,
+                          AtomicReference<Connection> connection) {
+        // One permit per queued frame, lets the writer wait on both queues at once
+        Writer(String name, boolean sendsResponses, boolean sendsEvents, Supplier<WebSocket> socket) {
+            this(name, sendsResponses, sendsEvents, socket, new Semaphore(0), new AtomicReference<>());
+        }
+    }
+
+    private static BlockingQueue<Frame> events = new ArrayBlockingQueue<>(8192);
+    private static final BlockingQueue<Frame> responses = new LinkedBlockingQueue<>();
+    // The same writer for both unless the telemetry channel is enabled
+    private static Writer responseWriter = new Writer("Denorite-Writer", true, true, Denorite::getWebSocket);
+    private static Writer eventWriter = responseWriter;
+    private static final Semaphore chunkCredits = new Semaphore(MAX_QUEUED_CHUNKS);
+
+    private static OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private static long blockTimeoutMs = 50;
+    private static long sendTimeoutMs = 10000;
+
+    private static final Map<String, LongAdder> dropCounters = new ConcurrentHashMap<>();
+    private static final LongAdder sentFrames = new LongAdder();
+    private static final LongAdder failedFrames = new LongAdder();
+
+    // Events from before the first connection, only touched by the event writer thread
+    private static final ArrayDeque<Frame> preConnect = new ArrayDeque<>();
+    private static int preConnectCapacity;
+    private static volatile boolean preConnecting;
+
+    public static void initialize(DenoriteConfig config) {
+        events = new ArrayBlockingQueue<>(Math.max(1, config.getOutboundQueueCapacity()));
+        overflowPolicy = OverflowPolicy.fromConfig(config.getOutboundOverflowPolicy());
+        blockTimeoutMs = config.getOutboundBlockTimeoutMs();
+        sendTimeoutMs = config.getOutboundSendTimeoutMs();
+        // With the spool enabled, early events are already kept on disk until the first connection
+        preConnectCapacity = config.getPreConnectBufferSize();
+        preConnecting = preConnectCapacity > 0 && !EventSpool.isEnabled();
+
+        if (config.isTelemetryChannelEnabled()) {
+            responseWriter = new Writer("Denorite-Writer", true, false, Denorite::getWebSocket);
+            eventWriter = new Writer("Denorite-Telemetry-Writer", false, true, TelemetryChannel::getWebSocket);
+            start(eventWriter);
+        }
+        start(responseWriter);
+        LOGGER.info("Outbound queue started (capacity " + events.remainingCapacity() + ", policy " + overflowPolicy + ")");
+    }
+
+    private static void start(Writer writer) {
+        Thread thread = new Thread(() -> drain(writer), writer.name());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The socket events are sent on, null while it is not connected.
+     */
+    static WebSocket eventSocket() {
+        return eventWriter.socket().get();
+    }
+
+    /**
+     * Queues an event frame according to the configured overflow policy.
+     * Never waits on the socket; with BLOCK it waits at most the configured timeout for queue space.
+     */
+    public static boolean offerEvent(String eventType, String payload) {
+        return offerEvent(new Frame(eventType, payload, null));
+    }
+
+    public static boolean offerEvent(String eventType, byte[] payload) {
+        return offerEvent(new Frame(eventType, null, payload));
+    }
+
+    private static boolean offerEvent(Frame frame) {
+        String eventType = frame.eventType();
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> {
+                if (!events.offer(frame)) {
+                    recordDrop(eventType);
+                    return false;
+                }
+            }
+            case BLOCK -> {
+                try {
+                    if (!events.offer(frame, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        recordDrop(eventType);
+                        return false;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    recordDrop(eventType);
+                    return false;
+                }
+            }
+            default -> {
+                while (!events.offer(frame)) {
+                    Frame dropped = events.poll();
+                    if (dropped != null) {
+                        recordDrop(dropped.eventType());
+                    }
+                }
+            }
+        }
+        eventWriter.pending().release();
+        return true;
+    }
+
+    /**
+     * Queues a {@code spooled_event} frame replayed from the spool. Waits for queue space instead of applying
+     * the overflow policy, so a backlog larger than the queue is paced rather than dropped. Returns false if interrupted.
+     */
+    public static boolean putReplayed(String payload) {
+        try {
+            events.put(new Frame(REPLAY_TYPE, payload, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        eventWriter.pending().release();
+        return true;
+    }
+
+    public static void offerResponse(String payload) {
+        responses.add(new Frame(RESPONSE_TYPE, payload, null));
+        responseWriter.pending().release();
+    }
+
+    public static void offerResponse(byte[] payload) {
+        responses.add(new Frame(RESPONSE_TYPE, null, payload));
+        responseWriter.pending().release();
+    }
+
+    /**
+     * Queues one chunk of a streamed response, waiting while too many chunks are already queued so a
+     * large response is produced at the speed the socket takes it. Returns false if interrupted.
+     */
+    public static boolean putResponseChunk(String payload) {
+        return putResponseChunk(new Frame(RESPONSE_CHUNK_TYPE, payload, null));
+    }
+
+    public static boolean putResponseChunk(byte[] payload) {
+        return putResponseChunk(new Frame(RESPONSE_CHUNK_TYPE, null, payload));
+    }
+
+    private static boolean putResponseChunk(Frame frame) {
+        try {
+            chunkCredits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        responses.add(frame);
+        responseWriter.pending().release();
+        return true;
+    }
+
+    /**
+     * Whether events produced before the first connection are still being buffered for it.
+     */
+    public static boolean isBufferingPreConnect() {
+        return preConnecting;
+    }
+
+    /**
+     * Called when a connection opened, after its owner made it available to the writers. Wakes the event writer,
+     * so buffered early events go out without waiting for the next frame.
+     *
+     * @param onDead called once if a send on this connection times out and the writer aborts it; the WebSocket
+     *               client does not report an aborted connection to its listener
+     */
+    public static void connected(WebSocket webSocket, Runnable onDead) {
+        Connection connection = new Connection(webSocket, onDead);
+        for (Writer writer : new Writer[]{responseWriter, eventWriter}) {
+            if (writer.socket().get() == webSocket) {
+                writer.connection().set(connection);
+            }
+        }
+        eventWriter.pending().release();
+    }
+
+    private static void drain(Writer writer) {
+        while (true) {
+            try {
+                writer.pending().acquire();
+            } catch (InterruptedException e) {
+                LOGGER.info(writer.name() + " interrupted, stopping");
+                return;
+            }
+
+            if (writer.sendsEvents() && preConnecting) {
+                WebSocket socket = writer.socket().get();
+                if (socket != null) {
+                    flushPreConnect(writer, socket);
+                }
+            }
+
+            Frame frame = writer.sendsResponses() ? responses.poll() : null;
+            if (frame == null && writer.sendsEvents()) {
+                frame = events.poll();
+            }
+            if (frame == null) {
+                // The frame behind this permit was evicted by DROP_OLDEST, or this was a wake-up from connected()
+                continue;
+            }
+
+            if (frame.eventType().equals(RESPONSE_CHUNK_TYPE)) {
+                chunkCredits.release();
+            }
+
+            WebSocket socket = writer.socket().get();
+            if (socket == null) {
+                if (preConnecting && !frame.eventType().equals(RESPONSE_TYPE) && !frame.eventType().equals(RESPONSE_CHUNK_TYPE)) {
+                    bufferPreConnect(frame);
+                } else {
+                    spoolOrDrop(frame);
+                }
+                continue;
+            }
+
+            send(writer, socket, frame);
+        }
+    }
+
+    private static void send(Writer writer, WebSocket socket, Frame frame) {
+        try {
+            CompletableFuture<WebSocket> sent = frame.binary() != null
+                    ? socket.sendBinary(ByteBuffer.wrap(frame.binary()), true)
+                    : socket.sendText(frame.text(), true);
+            if (sendTimeoutMs > 0) {
+                sent = sent.orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+            // Wait for completion so the next send never overlaps this one
+            sent.join();
+            sentFrames.increment();
+        } catch (CompletionException | CancellationException e) {
+            failedFrames.increment();
+            if (e.getCause() instanceof TimeoutException) {
+                // A half-open connection takes sends without ever completing them
+                LOGGER.warn("Sending " + frame.eventType() + " took longer than " + sendTimeoutMs + " ms, dropping the connection");
+                abort(writer, socket);
+            } else {
+                LOGGER.warn("Failed to send " + frame.eventType() + ": " + e.getMessage());
+            }
+            spoolOrDrop(frame);
+        }
+    }
+
+    private static void abort(Writer writer, WebSocket socket) {
+        socket.abort();
+        Connection connection = writer.connection().get();
+        if (connection != null && connection.socket() == socket && writer.connection().compareAndSet(connection, null)) {
+            connection.onDead().run();
+        }
+    }
+
+    private static void bufferPreConnect(Frame frame) {
+        if (preConnect.size() >= preConnectCapacity) {
+            recordDrop(preConnect.poll().eventType());
+        }
+        preConnect.add(frame);
+    }
+
+    // Sends what was produced before the first connection ahead of everything else, then stops buffering for good
+    private static void flushPreConnect(Writer writer, WebSocket socket) {
+        preConnecting = false;
+        if (!preConnect.isEmpty()) {
+            LOGGER.info("Sending " + preConnect.size() + " event(s) produced before the connection opened");
+        }
+        Frame frame;
+        while ((frame = preConnect.poll()) != null) {
+            send(writer, socket, frame);
+        }
+    }
+
+    // Events that could not reach the backend go to the spool when it is enabled; responses belong to the old connection
+    private static void spoolOrDrop(Frame frame) {
+        if (frame.eventType().equals(REPLAY_TYPE)) {
+            // Still in the spool and unacknowledged, it replays again on the next connection
+            return;
+        }
+        if (frame.eventType().equals(RESPONSE_TYPE) || frame.eventType().equals(RESPONSE_CHUNK_TYPE) || frame.text() == null || !EventSpool.append(frame.text())) {
+            recordDrop(frame.eventType());
+        }
+    }
+
+    private static void recordDrop(String eventType) {
+        dropCounters.computeIfAbsent(eventType, k -> new LongAdder()).increment();
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("queuedEvents", events.size());
+        metrics.addProperty("queuedResponses", responses.size());
+        metrics.addProperty("bufferingPreConnect", preConnecting);
+        metrics.addProperty("telemetryChannel", eventWriter != responseWriter);
+        metrics.addProperty("capacity", events.size() + events.remainingCapacity());
+        metrics.addProperty("overflowPolicy", overflowPolicy.name().toLowerCase());
+        metrics.addProperty("sent", sentFrames.sum());
+        metrics.addProperty("failed", failedFrames.sum());
+
+        JsonObject drops = new JsonObject();
+        dropCounters.forEach((type, count) -> drops.addProperty(type, count.sum()));
+        metrics.add("dropped", drops);
+        return metrics;
+    }
+}
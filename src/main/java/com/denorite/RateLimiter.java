@@ -0,0 +1,180 @@
+package com.denorite;
+
+import net.minecraft.entity.player.PlayerEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Token buckets keyed by (player UUID, event type) in front of the spammy interaction events.
+ * Events over the limit are not serialized; they are counted and reported once per interval as a
+ * {@code rate_limited} summary per player, so one player holding a mouse button cannot flood the backend.
+ */
+public class RateLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-RateLimiter");
+    private static final EventType[] TYPES = EventType.values();
+    // Players without activity for this long are forgotten
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefill;
+        int suppressed;
+    }
+
+    private static final class PlayerLimits {
+        final String name;
+        final Bucket[] buckets = new Bucket[TYPES.length];
+        volatile long lastSeen;
+
+        PlayerLimits(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final boolean[] limited = new boolean[TYPES.length];
+    private static final Map<UUID, PlayerLimits> players = new ConcurrentHashMap<>();
+    private static double tokensPerNano;
+    private static double burst;
+    private static long summaryIntervalMs;
+
+    public static void initialize(DenoriteConfig config) {
+        double perSecond = config.getRateLimitPerSecond();
+        if (!configure(perSecond, config.getRateLimitBurst(), config.getRateLimitedEvents())) {
+            LOGGER.info("Rate limiting disabled");
+            return;
+        }
+        summaryIntervalMs = config.getRateLimitSummaryIntervalMs();
+
+        Denorite.scheduler.scheduleAtFixedRate(RateLimiter::emitSummaries, summaryIntervalMs, summaryIntervalMs, TimeUnit.MILLISECONDS);
+        LOGGER.info("Rate limiting interaction events to " + perSecond + "/s per player (burst " + (int) burst + ")");
+    }
+
+    /**
+     * Replaces the limits and forgets all players.
+     *
+     * @return whether any event type is limited
+     */
+    static boolean configure(double perSecond, int burstSize, Iterable<String> events) {
+        Arrays.fill(limited, false);
+        players.clear();
+        if (perSecond <= 0) {
+            return false;
+        }
+
+        for (String name : events) {
+            EventType type = EventType.fromName(name);
+            if (type == null) {
+                LOGGER.warn("Ignoring unknown rate limited event type: " + name);
+                continue;
+            }
+            limited[type.ordinal()] = true;
+        }
+        tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        burst = Math.max(1, burstSize);
+        return true;
+    }
+
+    /**
+     * Takes a token for this player and event type. Returns false, and counts the event for the next
+     * summary, if the player is over the limit. Event types that are not limited always pass.
+     */
+    public static boolean tryAcquire(PlayerEntity player, EventType type) {
+        if (!limited[type.ordinal()]) {
+            return true;
+        }
+        return tryAcquire(player.getUuid(), () -> player.getGameProfile().getName(), type, System.nanoTime());
+    }
+
+    static boolean tryAcquire(UUID playerId, Supplier<String> playerName, EventType type, long now) {
+        int index = type.ordinal();
+        if (!limited[index]) {
+            return true;
+        }
+
+        PlayerLimits limits = players.computeIfAbsent(playerId, uuid -> new PlayerLimits(playerName.get()));
+        limits.lastSeen = now;
+
+        synchronized (limits) {
+            Bucket bucket = limits.buckets[index];
+            if (bucket == null) {
+                bucket = new Bucket();
+                bucket.tokens = burst;
+                bucket.lastRefill = now;
+                limits.buckets[index] = bucket;
+            } else {
+                bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.lastRefill) * tokensPerNano);
+                bucket.lastRefill = now;
+            }
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return true;
+            }
+            bucket.suppressed++;
+            return false;
+        }
+    }
+
+    /**
+     * Events of this type suppressed for this player since the last summary.
+     */
+    static int suppressedCount(UUID playerId, EventType type) {
+        PlayerLimits limits = players.get(playerId);
+        if (limits == null) {
+            return 0;
+        }
+        synchronized (limits) {
+            Bucket bucket = limits.buckets[type.ordinal()];
+            return bucket == null ? 0 : bucket.suppressed;
+        }
+    }
+
+    private static void emitSummaries() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<UUID, PlayerLimits>> iterator = players.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, PlayerLimits> entry = iterator.next();
+            PlayerLimits limits = entry.getValue();
+
+            int[] counts = null;
+            synchronized (limits) {
+                for (int i = 0; i < limits.buckets.length; i++) {
+                    Bucket bucket = limits.buckets[i];
+                    if (bucket != null && bucket.suppressed > 0) {
+                        if (counts == null) {
+                            counts = new int[TYPES.length];
+                        }
+                        counts[i] = bucket.suppressed;
+                        bucket.suppressed = 0;
+                    }
+                }
+            }
+
+            if (counts != null) {
+                int[] suppressed = counts;
+                Denorite.sendToTypeScript(EventType.RATE_LIMITED, out -> {
+                    out.field("playerId", entry.getKey().toString())
+                            .field("playerName", limits.name)
+                            .field("intervalMs", summaryIntervalMs)
+                            .beginObject("suppressed");
+                    for (int i = 0; i < suppressed.length; i++) {
+                        if (suppressed[i] > 0) {
+                            out.field(TYPES[i].getName(), suppressed[i]);
+                        }
+                    }
+                    out.endObject();
+                });
+            } else if (now - limits.lastSeen > IDLE_NANOS) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.denorite;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconnect state of one connection. Attempts are numbered so that a disconnect is acted on once per
+ * attempt, however many callbacks report it, and the delay before the next attempt grows with
+ * consecutive failures.
+ */
+final class ReconnectPolicy {
+    private final AtomicLong currentAttempt = new AtomicLong();
+    private final AtomicLong handledAttempt = new AtomicLong(-1);
+    private final AtomicInteger failures = new AtomicInteger();
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    ReconnectPolicy(DenoriteConfig config) {
+        this(config.getReconnectBaseDelayMs(), config.getReconnectMaxDelayMs());
+    }
+
+    ReconnectPolicy(long baseDelayMs, long maxDelayMs) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * @return the number of the attempt that is starting
+     */
+    long startAttempt() {
+        return currentAttempt.incrementAndGet();
+    }
+
+    /**
+     * Whether the caller should handle this attempt's disconnect. False for all but the first report,
+     * and for attempts that have already been superseded.
+     */
+    boolean claimDisconnect(long attempt) {
+        return attempt == currentAttempt.get() && handledAttempt.getAndSet(attempt) != attempt;
+    }
+
+    void connected() {
+        failures.set(0);
+    }
+
+    /**
+     * Capped exponential backoff with full jitter, so servers that lost the same backend do not all return at once.
+     */
+    long nextDelayMs() {
+        int failed = Math.min(failures.getAndIncrement(), 30);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << failed);
+        return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling + 1));
+    }
+}
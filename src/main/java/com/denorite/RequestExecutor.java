@@ -0,0 +1,105 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs backend requests on Denorite's own threads instead of the shared common pool.
+ * Requests are split into lanes with their own threads and bounded queues, so slow file and network
+ * I/O can never hold up chat, commands and other quick game requests. When a lane's queue is full the
+ * request is rejected right away and the caller replies with an error instead of letting work pile up.
+ */
+public class RequestExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Requests");
+
+    public enum Lane {
+        // Quick requests that mostly touch game state
+        FAST("fast"),
+        // File system and network transfers
+        IO("io");
+
+        private final String name;
+
+        Lane(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final class LaneExecutor {
+        final ThreadPoolExecutor executor;
+        final LatencyHistogram waitMicros = new LatencyHistogram();
+        final LongAdder rejected = new LongAdder();
+
+        LaneExecutor(Lane lane, int threads, int queueCapacity) {
+            AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "Denorite-" + lane.getName() + "-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    private static final LaneExecutor[] lanes = new LaneExecutor[Lane.values().length];
+
+    public static void initialize(DenoriteConfig config) {
+        lanes[Lane.FAST.ordinal()] = new LaneExecutor(Lane.FAST, config.getFastLaneThreads(), config.getFastLaneQueueCapacity());
+        lanes[Lane.IO.ordinal()] = new LaneExecutor(Lane.IO, config.getIoLaneThreads(), config.getIoLaneQueueCapacity());
+        LOGGER.info("Request lanes started (fast: " + config.getFastLaneThreads() + " threads, io: " + config.getIoLaneThreads() + " threads)");
+    }
+
+    /**
+     * Queues a task on the given lane. Returns null, without running it, if the lane is full.
+     * Cancelling the returned future skips the task if it has not started yet.
+     */
+    public static Future<?> submit(Lane lane, Runnable task) {
+        LaneExecutor laneExecutor = lanes[lane.ordinal()];
+        long queuedAt = System.nanoTime();
+        try {
+            return laneExecutor.executor.submit(() -> {
+                laneExecutor.waitMicros.record((System.nanoTime() - queuedAt) / 1000);
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            laneExecutor.rejected.increment();
+            return null;
+        }
+    }
+
+    /**
+     * The lane's executor, for code that composes CompletableFutures on it.
+     */
+    public static Executor executor(Lane lane) {
+        return lanes[lane.ordinal()].executor;
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        for (Lane lane : Lane.values()) {
+            LaneExecutor laneExecutor = lanes[lane.ordinal()];
+            if (laneExecutor == null) {
+                continue;
+            }
+            JsonObject laneMetrics = new JsonObject();
+            laneMetrics.addProperty("queued", laneExecutor.executor.getQueue().size());
+            laneMetrics.addProperty("active", laneExecutor.executor.getActiveCount());
+            laneMetrics.addProperty("completed", laneExecutor.executor.getCompletedTaskCount());
+            laneMetrics.addProperty("rejected", laneExecutor.rejected.sum());
+            laneMetrics.add("waitMs", laneExecutor.waitMicros.snapshot().toJson(1000.0));
+            metrics.add(lane.getName(), laneMetrics);
+        }
+        return metrics;
+    }
+}
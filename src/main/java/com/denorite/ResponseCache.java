@@ -0,0 +1,78 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the responses to recent requests with side effects, keyed by request id, so a request the
+ * backend resends after a reconnect is answered from here instead of running twice.
+ * Bounded in size (least recently used entries go first) and in age. Off unless {@code replayCacheSize} is set,
+ * because ids are only unique if the backend never reuses them, not even after it restarts.
+ */
+public class ResponseCache {
+    // Connection-scoped and read-only requests are cheap and must run again on a new connection
+    private static final Set<String> CACHED_TYPES = Set.of(
+            "command", "command_batch", "chat", "bluemap",
+            "register_command", "unregister_command", "clear_commands", "files"
+    );
+
+    private record Entry(JsonObject response, long storedAt) {
+    }
+
+    private static Map<String, Entry> entries = new LinkedHashMap<>();
+    private static int maxEntries;
+    private static long ttlMs;
+    private static final LongAdder hits = new LongAdder();
+
+    public static void initialize(DenoriteConfig config) {
+        maxEntries = config.getReplayCacheSize();
+        ttlMs = config.getReplayCacheTtlMs();
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static boolean isCacheable(String type) {
+        return maxEntries > 0 && CACHED_TYPES.contains(type);
+    }
+
+    /**
+     * @return the response sent for this id, or null if there is none or it has expired
+     */
+    public static synchronized JsonObject get(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.storedAt() > ttlMs) {
+            entries.remove(id);
+            return null;
+        }
+        hits.increment();
+        return entry.response();
+    }
+
+    /**
+     * Stores a final response. It is sent again as-is on a hit, so it must not be modified afterwards.
+     */
+    public static synchronized void put(String type, String id, JsonObject response) {
+        if (isCacheable(type)) {
+            entries.put(id, new Entry(response, System.currentTimeMillis()));
+        }
+    }
+
+    public static synchronized JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("entries", entries.size());
+        metrics.addProperty("capacity", maxEntries);
+        metrics.addProperty("hits", hits.sum());
+        return metrics;
+    }
+}
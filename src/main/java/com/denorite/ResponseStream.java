@@ -0,0 +1,83 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Sends a large result as a series of {@code {id, seq, chunk, done}} frames instead of one {@code result}.
+ * Concatenating the chunks in {@code seq} order gives exactly the text that {@code result} would have held.
+ * Handlers that can produce their result piece by piece write it here as they go; whatever is left when the
+ * request completes goes out with the final {@code done: true} frame.
+ */
+public final class ResponseStream {
+    private final String id;
+    private final int chunkSize;
+    private final StringBuilder buffer = new StringBuilder();
+    private int seq;
+
+    public ResponseStream(String id, int chunkSize) {
+        this.id = id;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Appends to the result, sending full chunks as they fill up. Waits while the outbound queue already
+     * holds several chunks, and gives up if the request is cancelled in the meantime.
+     */
+    public void write(CharSequence text) throws InterruptedIOException {
+        buffer.append(text);
+        while (buffer.length() >= chunkSize) {
+            if (!send(chunk(buffer.substring(0, chunkSize)), true)) {
+                throw new InterruptedIOException("Response stream " + id + " was abandoned");
+            }
+            buffer.delete(0, chunkSize);
+        }
+    }
+
+    /**
+     * Fills in the final frame for the remaining result. Called when the request completes, which may be on
+     * the server thread, so chunks before the last one are queued without waiting.
+     */
+    void finish(JsonObject response, String result) {
+        buffer.append(result);
+        while (buffer.length() > chunkSize) {
+            send(chunk(buffer.substring(0, chunkSize)), false);
+            buffer.delete(0, chunkSize);
+        }
+        response.addProperty("seq", seq++);
+        response.addProperty("chunk", buffer.toString());
+        response.addProperty("done", true);
+        buffer.setLength(0);
+    }
+
+    private JsonObject chunk(String text) {
+        JsonObject frame = new JsonObject();
+        frame.addProperty("id", id);
+        frame.addProperty("seq", seq++);
+        frame.addProperty("chunk", text);
+        frame.addProperty("done", false);
+        return frame;
+    }
+
+    private static boolean send(JsonObject frame, boolean wait) {
+        if (Denorite.getWebSocket() == null) {
+            // Responses belong to their connection, there is nobody left to stream to
+            return false;
+        }
+        if (BinaryCodec.isEnabled()) {
+            byte[] payload = BinaryCodec.encode(frame);
+            if (wait) {
+                return OutboundQueue.putResponseChunk(payload);
+            }
+            OutboundQueue.offerResponse(payload);
+        } else {
+            String payload = frame.toString();
+            if (wait) {
+                return OutboundQueue.putResponseChunk(payload);
+            }
+            OutboundQueue.offerResponse(payload);
+        }
+        return true;
+    }
+}
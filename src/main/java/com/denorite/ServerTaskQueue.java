@@ -0,0 +1,120 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs backend work that touches game state on the server thread, at the start of each tick.
+ * Each tick spends at most the configured budget on the queue (but always runs at least one task),
+ * and whatever is left waits for the next tick, so a burst of backend commands spreads over several
+ * ticks instead of turning into one long tick.
+ */
+public class ServerTaskQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-ServerTasks");
+
+    private static final class Task<T> {
+        final Supplier<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long queuedAt = System.nanoTime();
+
+        Task(Supplier<T> work) {
+            this.work = work;
+        }
+
+        void run() {
+            try {
+                future.complete(work.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue, so the depth is tracked separately
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final LatencyHistogram waitMicros = new LatencyHistogram();
+    private static final LongAdder executed = new LongAdder();
+    private static final LongAdder carriedOver = new LongAdder();
+    private static long budgetNanos;
+
+    public static void initialize(DenoriteConfig config) {
+        budgetNanos = config.getServerTaskBudgetMs() * 1_000_000L;
+        ServerTickEvents.START_SERVER_TICK.register(server -> drain());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> failPending());
+    }
+
+    /**
+     * Queues work for the server thread. Without a running server it runs right away on the calling thread,
+     * there is no game state to protect then.
+     */
+    public static <T> CompletableFuture<T> submit(Supplier<T> work) {
+        Task<T> task = new Task<>(work);
+        if (Denorite.server == null) {
+            task.run();
+            return task.future;
+        }
+        queued.incrementAndGet();
+        tasks.add(task);
+        if (Denorite.server == null) {
+            // The server stopped while we were queueing, nothing will drain the queue any more
+            failPending();
+        }
+        return task.future;
+    }
+
+    private static void drain() {
+        long started = System.nanoTime();
+        Task<?> task;
+        while ((task = tasks.poll()) != null) {
+            queued.decrementAndGet();
+            if (task.future.isDone()) {
+                // Cancelled or timed out while waiting
+                continue;
+            }
+            waitMicros.record((System.nanoTime() - task.queuedAt) / 1000);
+            task.run();
+            executed.increment();
+
+            if (System.nanoTime() - started >= budgetNanos) {
+                if (!tasks.isEmpty()) {
+                    carriedOver.increment();
+                }
+                break;
+            }
+        }
+    }
+
+    private static void failPending() {
+        Task<?> task;
+        int failed = 0;
+        while ((task = tasks.poll()) != null) {
+            queued.decrementAndGet();
+            task.future.completeExceptionally(new IllegalStateException("Server stopped before the request ran"));
+            failed++;
+        }
+        if (failed > 0) {
+            LOGGER.warn("Failed " + failed + " queued server task(s) on shutdown");
+        }
+    }
+
+    public static JsonObject getMetrics() {
+        JsonObject metrics = new JsonObject();
+        metrics.addProperty("queued", queued.get());
+        metrics.addProperty("executed", executed.sum());
+        metrics.addProperty("carriedOverTicks", carriedOver.sum());
+        metrics.addProperty("budgetMs", budgetNanos / 1_000_000.0);
+        metrics.add("waitMs", waitMicros.snapshot().toJson(1000.0));
+        return metrics;
+    }
+}
@@ -0,0 +1,109 @@
+package com.denorite;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional second connection to the backend that carries only events, so requests and their responses on
+ * the main (control) connection never queue behind gameplay telemetry. It has its own writer thread in
+ * {@link OutboundQueue} and its own reconnect state; losing it never stops the server, events are
+ * spooled or dropped until it is back.
+ */
+public class TelemetryChannel {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Telemetry");
+    // Sent on both connections so the backend can tell them apart
+    public static final String CHANNEL_HEADER = "X-Denorite-Channel";
+
+    private static volatile WebSocket webSocket;
+    private static DenoriteConfig config;
+    private static HttpClient httpClient;
+    private static ReconnectPolicy reconnectPolicy;
+    private static Heartbeat heartbeat;
+
+    public static void initialize(DenoriteConfig config, HttpClient httpClient) {
+        TelemetryChannel.config = config;
+        TelemetryChannel.httpClient = httpClient;
+        reconnectPolicy = new ReconnectPolicy(config);
+        heartbeat = Heartbeat.forChannel("telemetry", config);
+        connect();
+    }
+
+    static WebSocket getWebSocket() {
+        return webSocket;
+    }
+
+    private static void connect() {
+        long attempt = reconnectPolicy.startAttempt();
+        try {
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("Authorization", "Bearer " + config.getJwtToken());
+            headers.put("Origin", config.getOrigin());
+            headers.put(CHANNEL_HEADER, "telemetry");
+            BackendConnection.open(httpClient, config, headers, new WebSocket.Listener() {
+                        @Override
+                        public void onOpen(WebSocket webSocket) {
+                            LOGGER.info("Telemetry channel connected");
+                            TelemetryChannel.webSocket = webSocket;
+                            reconnectPolicy.connected();
+                            EventSpool.replay(webSocket);
+                            OutboundQueue.connected(webSocket, () -> handleDisconnect(attempt));
+                            // Nothing is ever held back on this channel
+                            heartbeat.start(webSocket, () -> false, () -> handleDisconnect(attempt));
+                            WebSocket.Listener.super.onOpen(webSocket);
+                        }
+
+                        // The backend has nothing to say on this channel, anything it sends is read and ignored
+
+                        @Override
+                        public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+                            heartbeat.pong(message);
+                            return WebSocket.Listener.super.onPong(webSocket, message);
+                        }
+
+                        @Override
+                        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                            LOGGER.warn("Telemetry channel closed: " + statusCode + " " + reason);
+                            handleDisconnect(attempt);
+                            return WebSocket.Listener.super.onClose(webSocket, statusCode, reason);
+                        }
+
+                        @Override
+                        public void onError(WebSocket webSocket, Throwable error) {
+                            LOGGER.error("Telemetry channel error: " + error.getMessage());
+                            handleDisconnect(attempt);
+                            WebSocket.Listener.super.onError(webSocket, error);
+                        }
+                    })
+                    .whenComplete((ws, error) -> {
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                            LOGGER.error("Failed to open telemetry channel: " + cause.getMessage());
+                            handleDisconnect(attempt);
+                        }
+                    });
+        } catch (Exception e) {
+            LOGGER.error("Failed to open telemetry channel: " + e.getMessage());
+            handleDisconnect(attempt);
+        }
+    }
+
+    private static void handleDisconnect(long attempt) {
+        if (!reconnectPolicy.claimDisconnect(attempt)) {
+            return;
+        }
+        webSocket = null;
+        heartbeat.stop();
+        long delay = reconnectPolicy.nextDelayMs();
+        LOGGER.warn("Reconnecting telemetry channel in " + delay + " ms");
+        Denorite.scheduler.schedule(TelemetryChannel::connect, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.denorite;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.util.Identifier;
+
+/**
+ * Event phases for Denorite's own tick work, so it runs in a fixed place relative to every other listener
+ * no matter in which order the modules register.
+ */
+final class TickPhases {
+    // Before every other listener at the start of a tick: tick timing starts here
+    static final Identifier FIRST = Identifier.of("denorite", "first");
+    // After all default-phase listeners of the end of a server tick: batch flush, snapshot capture
+    static final Identifier LATE = Identifier.of("denorite", "late");
+    // After everything else at the end of a tick, Denorite's late work included: tick timing stops here
+    static final Identifier LAST = Identifier.of("denorite", "last");
+
+    static {
+        ServerTickEvents.START_SERVER_TICK.addPhaseOrdering(FIRST, Event.DEFAULT_PHASE);
+        ServerTickEvents.END_SERVER_TICK.addPhaseOrdering(Event.DEFAULT_PHASE, LATE);
+        ServerTickEvents.END_SERVER_TICK.addPhaseOrdering(LATE, LAST);
+        ServerTickEvents.START_WORLD_TICK.addPhaseOrdering(FIRST, Event.DEFAULT_PHASE);
+        ServerTickEvents.END_WORLD_TICK.addPhaseOrdering(Event.DEFAULT_PHASE, LAST);
+    }
+
+    private TickPhases() {
+    }
+}
@@ -0,0 +1,113 @@
+package com.denorite;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures milliseconds per tick for the server and every world on the server thread and reports a
+ * compact {@code tick_stats} summary at a fixed interval, instead of the backend timing raw tick events.
+ * Durations are recorded in microseconds and reported in milliseconds.
+ */
+public class TickStats {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-TickStats");
+    // A tick that takes longer than this makes the server fall behind 20 TPS
+    private static final long TICK_BUDGET_MICROS = 50_000;
+
+    private static final class Timer {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder overruns = new LongAdder();
+        long startedAt;
+
+        void start() {
+            startedAt = System.nanoTime();
+        }
+
+        void stop() {
+            if (startedAt == 0) {
+                return;
+            }
+            long micros = (System.nanoTime() - startedAt) / 1000;
+            startedAt = 0;
+            histogram.record(micros);
+            if (micros > TICK_BUDGET_MICROS) {
+                overruns.increment();
+            }
+        }
+    }
+
+    private static final Timer server = new Timer();
+    private static final Map<RegistryKey<World>, Timer> worlds = new ConcurrentHashMap<>();
+    private static long intervalMs;
+
+    public static void initialize(DenoriteConfig config) {
+        intervalMs = config.getTickStatsIntervalMs();
+        if (intervalMs <= 0) {
+            LOGGER.info("Tick statistics disabled");
+            return;
+        }
+
+        // Outermost phases, so the timings include backend server tasks and Denorite's own end-of-tick work
+        ServerTickEvents.START_SERVER_TICK.register(TickPhases.FIRST, s -> server.start());
+        ServerTickEvents.END_SERVER_TICK.register(TickPhases.LAST, s -> server.stop());
+        ServerTickEvents.START_WORLD_TICK.register(TickPhases.FIRST, world -> worlds.computeIfAbsent(world.getRegistryKey(), key -> new Timer()).start());
+        ServerTickEvents.END_WORLD_TICK.register(TickPhases.LAST, world -> {
+            Timer timer = worlds.get(world.getRegistryKey());
+            if (timer != null) {
+                timer.stop();
+            }
+        });
+
+        Denorite.scheduler.scheduleAtFixedRate(TickStats::report, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static void report() {
+        LatencyHistogram.Snapshot serverTicks = server.histogram.snapshotAndReset();
+        long serverOverruns = server.overruns.sumThenReset();
+        Map<String, LatencyHistogram.Snapshot> worldTicks = new LinkedHashMap<>();
+        Map<String, Long> worldOverruns = new HashMap<>();
+        for (Map.Entry<RegistryKey<World>, Timer> entry : worlds.entrySet()) {
+            String dimension = entry.getKey().getValue().toString();
+            worldTicks.put(dimension, entry.getValue().histogram.snapshotAndReset());
+            worldOverruns.put(dimension, entry.getValue().overruns.sumThenReset());
+        }
+
+        if (serverTicks.getCount() == 0) {
+            // Server not running, or it has been stuck in one tick for the whole interval
+            return;
+        }
+
+        Denorite.sendToTypeScript(EventType.TICK_STATS, out -> {
+            out.field("intervalMs", intervalMs);
+            out.beginObject("server");
+            writeTimer(out, serverTicks, serverOverruns);
+            out.endObject();
+
+            out.beginObject("worlds");
+            worldTicks.forEach((dimension, ticks) -> {
+                out.beginObject(dimension);
+                writeTimer(out, ticks, worldOverruns.get(dimension));
+                out.endObject();
+            });
+            out.endObject();
+        });
+    }
+
+    private static void writeTimer(EventWriter out, LatencyHistogram.Snapshot ticks, long overruns) {
+        out.field("ticks", ticks.getCount())
+                .field("meanMs", ticks.getMean() / 1000.0)
+                .field("p50Ms", ticks.getValueAtPercentile(50) / 1000.0)
+                .field("p99Ms", ticks.getValueAtPercentile(99) / 1000.0)
+                .field("maxMs", ticks.getMax() / 1000.0)
+                .field("overruns", overruns);
+    }
+}
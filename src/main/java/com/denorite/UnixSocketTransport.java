@@ -0,0 +1,312 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The backend protocol over a Unix domain socket, for backends on the same host. Messages travel as
+ * length-prefixed frames instead of WebSocket frames, so there is no HTTP upgrade and no masking.
+ * It implements {@link WebSocket} and drives an ordinary {@link WebSocket.Listener}, so the rest of the
+ * mod (writer threads, flow control, heartbeats) works the same on either transport.
+ * <p>
+ * Every frame is a one-byte type, a four-byte big-endian payload length and the payload. The types reuse
+ * the WebSocket opcodes: 1 text (UTF-8), 2 binary, 8 close (two-byte status code and UTF-8 reason),
+ * 9 ping, 10 pong. The first frame Denorite sends is type 0, a JSON object with the headers a WebSocket
+ * connection would have carried, such as {@code Authorization}.
+ */
+public final class UnixSocketTransport implements WebSocket {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Denorite-Unix");
+    public static final String SCHEME = "unix:";
+
+    private static final byte HEADERS = 0;
+    private static final byte TEXT = 1;
+    private static final byte BINARY = 2;
+    private static final byte CLOSE = 8;
+    private static final byte PING = 9;
+    private static final byte PONG = 10;
+    private static final int HEADER_SIZE = 5;
+
+    private final SocketChannel channel;
+    private final WebSocket.Listener listener;
+    private final int maxFrameSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Frames are only handed to the listener while it has asked for them, like the WebSocket client does
+    private final ReentrantLock demandLock = new ReentrantLock();
+    private final Condition demandAvailable = demandLock.newCondition();
+    private long demand;
+    private volatile boolean inputClosed;
+    private volatile boolean outputClosed;
+
+    private UnixSocketTransport(SocketChannel channel, WebSocket.Listener listener, int maxFrameSize) {
+        this.channel = channel;
+        this.listener = listener;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    public static boolean isUnixUrl(String url) {
+        return url.startsWith(SCHEME);
+    }
+
+    /**
+     * Connects on a new reader thread, which then reads the connection until it closes.
+     * A local connect either succeeds or fails right away, so there is no connect timeout.
+     *
+     * @param url {@code unix:/path/to/socket} or {@code unix:///path/to/socket}
+     */
+    public static CompletableFuture<WebSocket> connect(String url, Map<String, String> headers, WebSocket.Listener listener, int maxFrameSize) {
+        Path path = Path.of(url.substring(SCHEME.length()).replaceFirst("^//", ""));
+        CompletableFuture<WebSocket> connected = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            UnixSocketTransport transport;
+            try {
+                SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+                try {
+                    channel.connect(UnixDomainSocketAddress.of(path));
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                transport = new UnixSocketTransport(channel, listener, maxFrameSize);
+                JsonObject headerFrame = new JsonObject();
+                headers.forEach(headerFrame::addProperty);
+                transport.write(HEADERS, StandardCharsets.UTF_8.encode(headerFrame.toString()));
+            } catch (IOException e) {
+                connected.completeExceptionally(e);
+                return;
+            }
+            listener.onOpen(transport);
+            connected.complete(transport);
+            transport.read();
+        }, "Denorite-Unix-Reader");
+        thread.setDaemon(true);
+        thread.start();
+        return connected;
+    }
+
+    private void read() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try {
+            while (true) {
+                header.clear();
+                readFully(header);
+                byte type = header.get(0);
+                int length = header.getInt(1);
+                if (length < 0) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (length > maxFrameSize) {
+                    // Skipped without buffering it, like an oversized WebSocket message is dropped
+                    LOGGER.error("Dropped inbound frame of " + length + " bytes, larger than " + maxFrameSize);
+                    skip(length);
+                    continue;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(payload);
+                payload.flip();
+
+                if (type == PING) {
+                    // Best effort, a pong is never worth blocking the reader for
+                    sendPong(payload.duplicate());
+                }
+                awaitDemand();
+                switch (type) {
+                    case TEXT -> listener.onText(this, StandardCharsets.UTF_8.decode(payload), true);
+                    case BINARY -> listener.onBinary(this, payload, true);
+                    case PING -> listener.onPing(this, payload);
+                    case PONG -> listener.onPong(this, payload);
+                    case CLOSE -> {
+                        int statusCode = payload.remaining() >= 2 ? payload.getShort() & 0xffff : NORMAL_CLOSURE;
+                        inputClosed = true;
+                        listener.onClose(this, statusCode, StandardCharsets.UTF_8.decode(payload).toString());
+                        abort();
+                        return;
+                    }
+                    default -> throw new IOException("Unknown frame type " + type);
+                }
+            }
+        } catch (IOException e) {
+            boolean aborted = inputClosed;
+            abort();
+            if (!aborted) {
+                listener.onError(this, e);
+            }
+        } catch (InterruptedException e) {
+            abort();
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by the backend");
+            }
+        }
+    }
+
+    private void skip(int length) throws IOException {
+        ByteBuffer scratch = ByteBuffer.allocate(Math.min(length, 8192));
+        while (length > 0) {
+            scratch.clear().limit(Math.min(length, scratch.capacity()));
+            readFully(scratch);
+            length -= scratch.limit();
+        }
+    }
+
+    private void awaitDemand() throws IOException, InterruptedException {
+        demandLock.lock();
+        try {
+            while (demand == 0) {
+                if (inputClosed) {
+                    throw new AsynchronousCloseException();
+                }
+                demandAvailable.await();
+            }
+            demand--;
+        } finally {
+            demandLock.unlock();
+        }
+    }
+
+    private void write(byte type, ByteBuffer payload) throws IOException {
+        writeLock.lock();
+        try {
+            writeLocked(type, payload);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeLocked(byte type, ByteBuffer payload) throws IOException {
+        if (outputClosed) {
+            throw new IOException("Output closed");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(type).putInt(payload.remaining()).flip();
+        ByteBuffer[] frame = {header, payload};
+        while (payload.hasRemaining() || header.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private CompletableFuture<WebSocket> send(byte type, ByteBuffer payload) {
+        try {
+            write(type, payload);
+            return CompletableFuture.completedFuture(this);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Control frames give up instead of waiting behind a large message, as a ping is pointless once it is late
+    private CompletableFuture<WebSocket> sendControl(byte type, ByteBuffer payload) {
+        if (!writeLock.tryLock()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Send in progress"));
+        }
+        try {
+            writeLocked(type, payload);
+            return CompletableFuture.completedFuture(this);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendText(CharSequence data, boolean last) {
+        if (!last) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Partial messages are not supported"));
+        }
+        return send(TEXT, StandardCharsets.UTF_8.encode(CharBuffer.wrap(data)));
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean last) {
+        if (!last) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Partial messages are not supported"));
+        }
+        return send(BINARY, data);
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+        return sendControl(PING, message);
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+        return sendControl(PONG, message);
+    }
+
+    @Override
+    public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) {
+        ByteBuffer reasonBytes = StandardCharsets.UTF_8.encode(reason);
+        ByteBuffer payload = ByteBuffer.allocate(2 + reasonBytes.remaining()).putShort((short) statusCode).put(reasonBytes).flip();
+        CompletableFuture<WebSocket> sent = send(CLOSE, payload);
+        outputClosed = true;
+        return sent;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Non-positive request: " + n);
+        }
+        demandLock.lock();
+        try {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            demandAvailable.signal();
+        } finally {
+            demandLock.unlock();
+        }
+    }
+
+    @Override
+    public String getSubprotocol() {
+        return "";
+    }
+
+    @Override
+    public boolean isOutputClosed() {
+        return outputClosed;
+    }
+
+    @Override
+    public boolean isInputClosed() {
+        return inputClosed;
+    }
+
+    @Override
+    public void abort() {
+        inputClosed = true;
+        outputClosed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close Unix socket: " + e.getMessage());
+        }
+        // Wakes the reader if it is waiting for demand, so it can exit
+        demandLock.lock();
+        try {
+            demandAvailable.signalAll();
+        } finally {
+            demandLock.unlock();
+        }
+    }
+}
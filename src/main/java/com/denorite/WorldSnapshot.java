@@ -0,0 +1,195 @@
+package com.denorite;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.state.property.Property;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Answers {@code query} requests with structured game state instead of parsed command output.
+ * Players, entity counts and world time and weather are captured into a snapshot on the server thread when a
+ * query finds the last one too old; queries within its maximum age read it from the request threads without
+ * touching the server thread at all. Capturing walks every entity, so it never happens unless asked for.
+ * Block lookups are the exception, they are read live as a server task.
+ */
+public class WorldSnapshot {
+    private static final String[] ALL_SELECTORS = {"players", "entities", "worlds"};
+
+    private record Snapshot(int tick, long capturedAt, JsonArray players, JsonObject entities, JsonObject worlds) {
+    }
+
+    private static volatile Snapshot latest;
+    // A snapshot older than this is captured again before answering
+    private static long maxAgeMs;
+
+    public static void initialize(DenoriteConfig config) {
+        maxAgeMs = config.getQuerySnapshotMaxAgeMs();
+        MessageHandlers.registerAsync("query", MessageHandlers.Runs.FAST_LANE, 0,
+                context -> query(context.getMessage().get("data")));
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> latest = null);
+    }
+
+    /**
+     * @param data optional {@code select} array (players, entities, worlds; all by default) and {@code blocks}
+     *             array of {@code {dimension, x, y, z}} positions
+     */
+    public static CompletableFuture<String> query(JsonElement data) {
+        JsonObject options = data != null && data.isJsonObject() ? data.getAsJsonObject() : new JsonObject();
+        String[] selectors = parseSelectors(options);
+        JsonArray blocks = options.has("blocks") ? options.get("blocks").getAsJsonArray() : null;
+        if (blocks != null) {
+            for (JsonElement block : blocks) {
+                if (!block.isJsonObject() || !block.getAsJsonObject().has("x") || !block.getAsJsonObject().has("y") || !block.getAsJsonObject().has("z")) {
+                    throw new IllegalArgumentException("Each entry of 'blocks' needs x, y and z");
+                }
+            }
+        }
+
+        Snapshot snapshot = latest;
+        if (blocks == null && snapshot != null && System.currentTimeMillis() - snapshot.capturedAt() <= maxAgeMs) {
+            return CompletableFuture.completedFuture(render(snapshot, selectors, null).toString());
+        }
+
+        // No recent snapshot, or live block reads: answer from the server thread
+        return ServerTaskQueue.submit(() -> {
+            MinecraftServer server = Denorite.server;
+            if (server == null) {
+                throw new IllegalStateException("Server is not running");
+            }
+            // Queries that found the same stale snapshot share the first one's capture
+            Snapshot current = latest;
+            if (current == null || System.currentTimeMillis() - current.capturedAt() > maxAgeMs) {
+                current = capture(server);
+                latest = current;
+            }
+            return render(current, selectors, blocks != null ? readBlocks(server, blocks) : null).toString();
+        });
+    }
+
+    private static String[] parseSelectors(JsonObject options) {
+        if (!options.has("select")) {
+            return ALL_SELECTORS;
+        }
+        JsonArray select = options.get("select").getAsJsonArray();
+        String[] selectors = new String[select.size()];
+        for (int i = 0; i < selectors.length; i++) {
+            selectors[i] = select.get(i).getAsString();
+            switch (selectors[i]) {
+                case "players", "entities", "worlds" -> {
+                }
+                default -> throw new IllegalArgumentException("Unknown query selector: " + selectors[i]);
+            }
+        }
+        return selectors;
+    }
+
+    private static JsonObject render(Snapshot snapshot, String[] selectors, JsonArray blocks) {
+        // The snapshot's trees are never modified once published, so they can be shared between responses
+        JsonObject result = new JsonObject();
+        result.addProperty("tick", snapshot.tick());
+        result.addProperty("capturedAt", snapshot.capturedAt());
+        for (String selector : selectors) {
+            switch (selector) {
+                case "players" -> result.add("players", snapshot.players());
+                case "entities" -> result.add("entities", snapshot.entities());
+                case "worlds" -> result.add("worlds", snapshot.worlds());
+            }
+        }
+        if (blocks != null) {
+            result.add("blocks", blocks);
+        }
+        return result;
+    }
+
+    private static Snapshot capture(MinecraftServer server) {
+        JsonArray players = new JsonArray();
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("playerId", player.getUuidAsString());
+            entry.addProperty("playerName", player.getGameProfile().getName());
+            entry.addProperty("dimension", InternedNames.dimension(player.getWorld()));
+            entry.addProperty("x", player.getX());
+            entry.addProperty("y", player.getY());
+            entry.addProperty("z", player.getZ());
+            entry.addProperty("health", player.getHealth());
+            entry.addProperty("maxHealth", player.getMaxHealth());
+            entry.addProperty("foodLevel", player.getHungerManager().getFoodLevel());
+            entry.addProperty("gameMode", player.interactionManager.getGameMode().getName());
+            players.add(entry);
+        }
+
+        JsonObject entities = new JsonObject();
+        JsonObject worlds = new JsonObject();
+        for (ServerWorld world : server.getWorlds()) {
+            String dimension = InternedNames.dimension(world);
+
+            Map<String, Integer> counts = new HashMap<>();
+            for (Entity entity : world.iterateEntities()) {
+                counts.merge(InternedNames.of(entity.getType()), 1, Integer::sum);
+            }
+            JsonObject worldCounts = new JsonObject();
+            counts.forEach(worldCounts::addProperty);
+            entities.add(dimension, worldCounts);
+
+            JsonObject info = new JsonObject();
+            info.addProperty("time", world.getTime());
+            info.addProperty("timeOfDay", world.getTimeOfDay());
+            info.addProperty("raining", world.isRaining());
+            info.addProperty("thundering", world.isThundering());
+            worlds.add(dimension, info);
+        }
+
+        return new Snapshot(server.getTicks(), System.currentTimeMillis(), players, entities, worlds);
+    }
+
+    private static JsonArray readBlocks(MinecraftServer server, JsonArray positions) {
+        JsonArray blocks = new JsonArray(positions.size());
+        for (JsonElement element : positions) {
+            JsonObject position = element.getAsJsonObject();
+            String dimension = position.has("dimension") ? position.get("dimension").getAsString() : "minecraft:overworld";
+            ServerWorld world = server.getWorld(RegistryKey.of(RegistryKeys.WORLD, Identifier.of(dimension)));
+            if (world == null) {
+                throw new IllegalArgumentException("Unknown dimension: " + dimension);
+            }
+            BlockPos pos = new BlockPos(position.get("x").getAsInt(), position.get("y").getAsInt(), position.get("z").getAsInt());
+
+            JsonObject block = new JsonObject();
+            block.addProperty("dimension", InternedNames.dimension(world));
+            block.addProperty("x", pos.getX());
+            block.addProperty("y", pos.getY());
+            block.addProperty("z", pos.getZ());
+            // Never load chunks for a query
+            boolean loaded = world.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4);
+            block.addProperty("loaded", loaded);
+            if (loaded) {
+                BlockState state = world.getBlockState(pos);
+                block.addProperty("block", InternedNames.of(state.getBlock()));
+                JsonObject properties = new JsonObject();
+                for (Property<?> property : state.getProperties()) {
+                    properties.addProperty(property.getName(), propertyValue(state, property));
+                }
+                block.add("properties", properties);
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private static <T extends Comparable<T>> String propertyValue(BlockState state, Property<T> property) {
+        return property.name(state.get(property));
+    }
+}
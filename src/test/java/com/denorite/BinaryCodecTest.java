@@ -0,0 +1,136 @@
+package com.denorite;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+    private static JsonElement roundTrip(JsonElement element) {
+        return BinaryCodec.decode(ByteBuffer.wrap(BinaryCodec.encode(element)));
+    }
+
+    private static JsonElement decode(int... bytes) {
+        byte[] frame = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            frame[i] = (byte) bytes[i];
+        }
+        return BinaryCodec.decode(ByteBuffer.wrap(frame));
+    }
+
+    @Test
+    void roundTripsScalars() {
+        assertEquals(JsonNull.INSTANCE, roundTrip(JsonNull.INSTANCE));
+        assertEquals(new JsonPrimitive(true), roundTrip(new JsonPrimitive(true)));
+        assertEquals(new JsonPrimitive(false), roundTrip(new JsonPrimitive(false)));
+        for (long value : new long[]{0, 1, 127, 128, 255, 256, 65535, 65536, -1, -32, -33, -128, -129,
+                -32768, -32769, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(new JsonPrimitive(value), roundTrip(new JsonPrimitive(value)), "value " + value);
+        }
+        assertEquals(new JsonPrimitive(1.5), roundTrip(new JsonPrimitive(1.5)));
+        assertEquals(new JsonPrimitive(-0.1), roundTrip(new JsonPrimitive(-0.1)));
+    }
+
+    @Test
+    void roundTripsStringsOfEveryLength() {
+        for (int length : new int[]{0, 1, 31, 32, 255, 256, 65535, 65536}) {
+            String value = "\u00e9".repeat(length / 2) + "x".repeat(length % 2);
+            assertEquals(new JsonPrimitive(value), roundTrip(new JsonPrimitive(value)), "length " + length);
+        }
+    }
+
+    @Test
+    void encodesDictionaryStringsAsReferences() {
+        byte[] encoded = BinaryCodec.encode(new JsonPrimitive("playerId"));
+        assertEquals(3, encoded.length);
+        assertEquals(BinaryCodec.DICTIONARY_EXT, encoded[1]);
+        assertEquals(new JsonPrimitive("playerId"), roundTrip(new JsonPrimitive("playerId")));
+    }
+
+    @Test
+    void roundTripsNestedTrees() {
+        JsonElement tree = JsonParser.parseString("{\"eventType\":\"player_joined\",\"data\":{\"playerId\":\"abc\","
+                + "\"x\":1.25,\"y\":64,\"z\":-3,\"items\":[1,\"two\",null,true,{\"nested\":[]}],\"empty\":{}}}");
+        assertEquals(tree, roundTrip(tree));
+    }
+
+    @Test
+    void roundTripsLargeContainers() {
+        JsonArray array = new JsonArray();
+        JsonObject object = new JsonObject();
+        for (int i = 0; i < 70000; i++) {
+            array.add(i);
+            if (i < 20000) {
+                object.addProperty("key" + i, i);
+            }
+        }
+        assertEquals(array, roundTrip(array));
+        assertEquals(object, roundTrip(object));
+    }
+
+    @Test
+    void decodesUint64AboveLongRangeAsUnsigned() {
+        JsonElement value = decode(0xcf, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff);
+        assertEquals(new BigInteger("18446744073709551615"), value.getAsBigInteger());
+        assertEquals(5, decode(0xcf, 0, 0, 0, 0, 0, 0, 0, 5).getAsLong());
+    }
+
+    @Test
+    void rejectsContainerSizesLargerThanTheFrame() {
+        assertThrows(IllegalArgumentException.class, () -> decode(0xdd, 0x7f, 0xff, 0xff, 0xff));
+        assertThrows(IllegalArgumentException.class, () -> decode(0xdd, 0xff, 0xff, 0xff, 0xff));
+        assertThrows(IllegalArgumentException.class, () -> decode(0xdf, 0x7f, 0xff, 0xff, 0xff));
+        assertThrows(IllegalArgumentException.class, () -> decode(0xdc, 0xff, 0xff, 0xc0));
+        // A map needs a key and a value per entry
+        assertThrows(IllegalArgumentException.class, () -> decode(0x82, 0xa1, 0x61, 0xc0));
+    }
+
+    @Test
+    void rejectsStringLengthsLargerThanTheFrame() {
+        assertThrows(IllegalArgumentException.class, () -> decode(0xdb, 0x7f, 0xff, 0xff, 0xff, 0x61));
+        assertThrows(IllegalArgumentException.class, () -> decode(0xdb, 0xff, 0xff, 0xff, 0xff));
+        assertThrows(IllegalArgumentException.class, () -> decode(0xa5, 0x61, 0x62));
+    }
+
+    @Test
+    void rejectsDeepNesting() {
+        int levels = 10000;
+        int[] frame = new int[levels + 1];
+        // fixarray of one element, nested
+        java.util.Arrays.fill(frame, 0x91);
+        frame[levels] = 0xc0;
+        assertThrows(IllegalArgumentException.class, () -> decode(frame));
+    }
+
+    @Test
+    void acceptsNestingUpToTheLimit() {
+        JsonElement tree = JsonNull.INSTANCE;
+        for (int i = 0; i < BinaryCodec.MAX_DEPTH; i++) {
+            JsonArray wrapper = new JsonArray();
+            wrapper.add(tree);
+            tree = wrapper;
+        }
+        assertEquals(tree, roundTrip(tree));
+    }
+
+    @Test
+    void rejectsUnknownTypesAndNonStringKeys() {
+        assertThrows(IllegalArgumentException.class, () -> decode(0xc1));
+        assertThrows(IllegalArgumentException.class, () -> decode(0x81, 0x01, 0x02));
+        assertThrows(IllegalArgumentException.class, () -> decode(0xd4, 0x7f, 0x00));
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        assertThrows(RuntimeException.class, () -> decode(0xcb, 0x3f, 0xf0));
+        assertThrows(RuntimeException.class, () -> decode(0x92, 0x01));
+    }
+}
@@ -0,0 +1,216 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSpoolTest {
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        EventSpool.close();
+    }
+
+    private static String event(int n) {
+        return "{\"eventType\":\"player_chat\",\"data\":{\"n\":" + n + "}}";
+    }
+
+    // The sequence numbers and event numbers of everything pending, in replay order
+    private static List<long[]> replay() {
+        List<long[]> records = new ArrayList<>();
+        long count = EventSpool.replayNow(() -> true, frame -> {
+            JsonObject message = JsonParser.parseString(frame).getAsJsonObject();
+            assertEquals("spooled_event", message.get("eventType").getAsString());
+            JsonObject data = message.getAsJsonObject("data");
+            assertTrue(data.get("timestamp").getAsLong() > 0);
+            int n = data.getAsJsonObject("event").getAsJsonObject("data").get("n").getAsInt();
+            records.add(new long[]{data.get("seq").getAsLong(), n});
+            return true;
+        });
+        assertEquals(records.size(), count);
+        return records;
+    }
+
+    private static void assertRecords(List<long[]> records, long firstSeq, int firstEvent, int count) {
+        assertEquals(count, records.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(firstSeq + i, records.get(i)[0]);
+            assertEquals(firstEvent + i, records.get(i)[1]);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> listing = Files.list(dir)) {
+            return listing.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    @Test
+    void replaysAppendedEventsInOrder() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(EventSpool.append(event(i)));
+        }
+        assertRecords(replay(), 1, 1, 3);
+        // Unacknowledged records replay again
+        assertRecords(replay(), 1, 1, 3);
+    }
+
+    @Test
+    void sinkCanStopTheReplay() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        for (int i = 1; i <= 5; i++) {
+            EventSpool.append(event(i));
+        }
+        int[] offered = {0};
+        assertEquals(2, EventSpool.replayNow(() -> true, frame -> ++offered[0] <= 2));
+        assertEquals(3, offered[0]);
+    }
+
+    @Test
+    void replayStopsWhenTheConnectionCloses() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        for (int i = 1; i <= 5; i++) {
+            EventSpool.append(event(i));
+        }
+        AtomicBoolean connected = new AtomicBoolean(true);
+        List<String> sent = new ArrayList<>();
+        long replayed = EventSpool.replayNow(connected::get, frame -> {
+            sent.add(frame);
+            if (sent.size() == 2) {
+                connected.set(false);
+            }
+            return true;
+        });
+        assertEquals(2, replayed);
+        assertEquals(2, sent.size());
+
+        // The next connection gets every unacknowledged record once, and nothing was spooled again
+        assertRecords(replay(), 1, 1, 5);
+        assertEquals(6, EventSpool.getMetrics().get("nextSeq").getAsLong());
+    }
+
+    @Test
+    void acknowledgedEventsAreNotReplayed() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        for (int i = 1; i <= 3; i++) {
+            EventSpool.append(event(i));
+        }
+        replay();
+
+        EventSpool.acknowledge(2);
+        assertRecords(replay(), 3, 3, 1);
+        assertEquals(1, segments().size());
+
+        EventSpool.acknowledge(3);
+        assertTrue(replay().isEmpty());
+        assertTrue(segments().isEmpty());
+        assertTrue(EventSpool.acknowledge(1).startsWith("Already acknowledged"));
+    }
+
+    @Test
+    void pendingEventsAndAcknowledgementSurviveAReopen() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        for (int i = 1; i <= 3; i++) {
+            EventSpool.append(event(i));
+        }
+        replay();
+        EventSpool.acknowledge(1);
+        EventSpool.close();
+
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        assertRecords(replay(), 2, 2, 2);
+        EventSpool.append(event(4));
+        assertRecords(replay(), 2, 2, 3);
+        assertEquals(5, EventSpool.getMetrics().get("nextSeq").getAsLong());
+    }
+
+    @Test
+    void fullSegmentsRollOver() throws IOException {
+        // Room for two records per segment
+        int recordBytes = 20 + event(1).length();
+        EventSpool.open(dir, 2 * recordBytes + 1, 0, 0);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(EventSpool.append(event(i)));
+        }
+        assertRecords(replay(), 1, 1, 5);
+        assertEquals(3, segments().size());
+
+        EventSpool.acknowledge(3);
+        assertEquals(2, segments().size());
+        assertRecords(replay(), 4, 4, 2);
+    }
+
+    @Test
+    void oversizedEventsAreDropped() throws IOException {
+        EventSpool.open(dir, 64, 0, 0);
+        assertFalse(EventSpool.append("x".repeat(64)));
+        assertEquals(1, EventSpool.getMetrics().get("dropped").getAsLong());
+        assertTrue(replay().isEmpty());
+    }
+
+    @Test
+    void oldestSegmentsAreDiscardedOverTheSizeLimit() throws IOException {
+        int recordBytes = 20 + event(1).length();
+        EventSpool.open(dir, recordBytes, 2L * recordBytes, 0);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(EventSpool.append(event(i)));
+        }
+        // Limits are enforced when a segment fills, so the spool holds up to the limit plus the active segment
+        List<long[]> records = replay();
+        assertEquals(3, records.size());
+        assertRecords(records, 3, 3, 3);
+        assertEquals(5 - records.size(), EventSpool.getMetrics().get("dropped").getAsLong());
+    }
+
+    @Test
+    void truncatedTailIsIgnoredAndAppendsContinue() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        EventSpool.append(event(1));
+        EventSpool.append(event(2));
+        EventSpool.close();
+
+        // A record cut short by a crash: a header promising more bytes than were written
+        Path segment = segments().get(0);
+        long complete = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(9).putInt(100).put(new byte[5]).flip());
+        }
+        assertEquals(complete, EventSpool.readRecords(segment, Files.size(segment), false, (seq, timestamp, frame) -> true));
+
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        assertRecords(replay(), 1, 1, 2);
+        assertTrue(EventSpool.append(event(3)));
+        assertRecords(replay(), 1, 1, 3);
+
+        EventSpool.acknowledge(3);
+        assertTrue(segments().isEmpty());
+    }
+
+    @Test
+    void disabledSpoolRejectsEvents() throws IOException {
+        EventSpool.open(dir, SEGMENT_BYTES, 0, 0);
+        EventSpool.close();
+        assertFalse(EventSpool.append(event(1)));
+        assertThrows(IllegalStateException.class, () -> EventSpool.acknowledge(1));
+    }
+}
@@ -0,0 +1,164 @@
+package com.denorite;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventWriterTest {
+    private static final String TRICKY = "quote\" backslash\\ tab\t newline\n control\u0001\u001f <b>&'= \u2028\u2029 \u00e9\u4e16 \ud83d\ude00";
+
+    @AfterEach
+    void tearDown() {
+        BinaryCodec.setEnabled(false);
+        FieldProjections.reset();
+    }
+
+    private static void writeSample(EventWriter out) {
+        out.beginData();
+        out.field("playerName", TRICKY)
+                .field("nothing", (String) null)
+                .field("level", 42L)
+                .field("negative", Long.MIN_VALUE)
+                .field("x", 12.5)
+                .field("y", -0.0001)
+                .field("health", 19.5f)
+                .field("alive", true)
+                .field("tree", JsonParser.parseString("{\"a\":[1,2,{\"b\":null}]}"))
+                .beginObject("position")
+                .field("x", 1L)
+                .beginObject("nested")
+                .field("deep", "value")
+                .endObject()
+                .endObject()
+                .beginArray("items")
+                .beginObject().field("item", "minecraft:stone").field("count", 64L).endObject()
+                .beginObject().endObject()
+                .endArray()
+                .beginArray("empty")
+                .endArray();
+        out.endData();
+    }
+
+    private static JsonObject sampleTree() {
+        JsonObject data = new JsonObject();
+        data.addProperty("playerName", TRICKY);
+        data.add("nothing", null);
+        data.addProperty("level", 42L);
+        data.addProperty("negative", Long.MIN_VALUE);
+        data.addProperty("x", 12.5);
+        data.addProperty("y", -0.0001);
+        data.addProperty("health", 19.5f);
+        data.addProperty("alive", true);
+        data.add("tree", JsonParser.parseString("{\"a\":[1,2,{\"b\":null}]}"));
+        JsonObject position = new JsonObject();
+        position.addProperty("x", 1L);
+        JsonObject nested = new JsonObject();
+        nested.addProperty("deep", "value");
+        position.add("nested", nested);
+        data.add("position", position);
+        JsonArray items = new JsonArray();
+        JsonObject stone = new JsonObject();
+        stone.addProperty("item", "minecraft:stone");
+        stone.addProperty("count", 64L);
+        items.add(stone);
+        items.add(new JsonObject());
+        data.add("items", items);
+        data.add("empty", new JsonArray());
+        return envelope(EventType.PLAYER_JOINED, data);
+    }
+
+    private static JsonObject envelope(EventType type, JsonElement data) {
+        JsonObject message = new JsonObject();
+        message.addProperty("eventType", type.getName());
+        message.add("data", data);
+        return message;
+    }
+
+    private static JsonElement decode(EventWriter out) {
+        return BinaryCodec.decode(ByteBuffer.wrap(((EventWriter.Binary) out).toBytes()));
+    }
+
+    @Test
+    void jsonMatchesGsonOutput() {
+        EventWriter out = EventWriter.start(EventType.PLAYER_JOINED);
+        writeSample(out);
+        assertEquals(sampleTree().toString(), ((EventWriter.Json) out).toText());
+    }
+
+    @Test
+    void binaryDecodesToTheSameTree() {
+        BinaryCodec.setEnabled(true);
+        EventWriter out = EventWriter.start(EventType.PLAYER_JOINED);
+        assertTrue(out instanceof EventWriter.Binary);
+        writeSample(out);
+        assertEquals(sampleTree(), decode(out));
+    }
+
+    @Test
+    void writerIsReusedWithoutLeftovers() {
+        EventWriter first = EventWriter.start(EventType.PLAYER_JOINED);
+        writeSample(first);
+        EventWriter second = EventWriter.start(EventType.PLAYER_DEATH);
+        second.beginData();
+        second.field("message", "died");
+        second.endData();
+        assertSame(first, second);
+        assertEquals("{\"eventType\":\"player_death\",\"data\":{\"message\":\"died\"}}", ((EventWriter.Json) second).toText());
+    }
+
+    @Test
+    void treeDataMatchesGsonOutput() {
+        JsonObject data = new JsonObject();
+        data.addProperty("command", "home");
+        data.addProperty("sender", TRICKY);
+        EventWriter out = EventWriter.start(EventType.CUSTOM_COMMAND_EXECUTED);
+        out.treeData(data);
+        assertEquals(envelope(EventType.CUSTOM_COMMAND_EXECUTED, data).toString(), ((EventWriter.Json) out).toText());
+
+        BinaryCodec.setEnabled(true);
+        out = EventWriter.start(EventType.CUSTOM_COMMAND_EXECUTED);
+        out.treeData(data);
+        assertEquals(envelope(EventType.CUSTOM_COMMAND_EXECUTED, data), decode(out));
+    }
+
+    @Test
+    void projectionDropsUnwantedTopLevelFields() {
+        FieldProjections.update(JsonParser.parseString("{\"player_joined\":[\"playerName\",\"items\",\"x\"]}"));
+
+        EventWriter out = EventWriter.start(EventType.PLAYER_JOINED);
+        assertTrue(out.wants("playerName"));
+        assertFalse(out.wants("position"));
+        writeSample(out);
+
+        JsonObject data = new JsonObject();
+        data.addProperty("playerName", TRICKY);
+        data.addProperty("x", 12.5);
+        // Nested fields named like dropped top-level fields are kept
+        data.add("items", sampleTree().getAsJsonObject("data").get("items"));
+        assertEquals(envelope(EventType.PLAYER_JOINED, data).toString(), ((EventWriter.Json) out).toText());
+
+        BinaryCodec.setEnabled(true);
+        out = EventWriter.start(EventType.PLAYER_JOINED);
+        writeSample(out);
+        assertEquals(envelope(EventType.PLAYER_JOINED, data), decode(out));
+    }
+
+    @Test
+    void projectionAppliesToTreeData() {
+        FieldProjections.update(JsonParser.parseString("{\"custom_command_executed\":[\"command\"]}"));
+        JsonObject data = new JsonObject();
+        data.addProperty("command", "home");
+        data.addProperty("sender", "Steve");
+
+        EventWriter out = EventWriter.start(EventType.CUSTOM_COMMAND_EXECUTED);
+        out.treeData(data);
+        assertEquals("{\"eventType\":\"custom_command_executed\",\"data\":{\"command\":\"home\"}}", ((EventWriter.Json) out).toText());
+    }
+}
@@ -0,0 +1,135 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private static void assertWithin(long expected, long actual, double tolerance) {
+        assertTrue(Math.abs(actual - expected) <= expected * tolerance,
+                "expected " + expected + " within " + tolerance * 100 + "% but was " + actual);
+    }
+
+    @Test
+    void emptySnapshotReportsZeros() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0.0, snapshot.getMean());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(0, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 32; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(32, snapshot.getCount());
+        assertEquals(31, snapshot.getMax());
+        assertEquals(15.5, snapshot.getMean());
+        assertEquals(15, snapshot.getValueAtPercentile(50));
+        assertEquals(0, snapshot.getValueAtPercentile(0));
+        assertEquals(31, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void percentilesStayWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            // Spread over many orders of magnitude
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            sum += values[i];
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        assertEquals((double) sum / values.length, snapshot.getMean(), 1e-6 * snapshot.getMean());
+        for (double percentile : new double[]{1, 10, 50, 90, 99, 99.9, 100}) {
+            long expected = values[(int) Math.ceil(values.length * percentile / 100.0) - 1];
+            assertWithin(expected, snapshot.getValueAtPercentile(percentile), 0.03);
+        }
+    }
+
+    @Test
+    void percentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.snapshot().getValueAtPercentile(100));
+    }
+
+    @Test
+    void snapshotDoesNotClear() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.snapshot();
+        histogram.record(200);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(200, snapshot.getMax());
+    }
+
+    @Test
+    void snapshotAndResetStartsANewInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5000);
+        histogram.record(7000);
+
+        LatencyHistogram.Snapshot first = histogram.snapshotAndReset();
+        assertEquals(2, first.getCount());
+        assertEquals(7000, first.getMax());
+        assertEquals(6000.0, first.getMean());
+
+        LatencyHistogram.Snapshot empty = histogram.snapshot();
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMax());
+        assertEquals(0.0, empty.getMean());
+
+        histogram.record(10);
+        LatencyHistogram.Snapshot second = histogram.snapshotAndReset();
+        assertEquals(1, second.getCount());
+        assertEquals(10, second.getMax());
+        assertEquals(10, second.getValueAtPercentile(50));
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        long maxValue = (1L << 41) - 1;
+        assertEquals(2, snapshot.getCount());
+        assertEquals(maxValue, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertWithin(maxValue, snapshot.getValueAtPercentile(100), 0.03);
+        assertEquals(maxValue / 2.0, snapshot.getMean(), 1);
+    }
+
+    @Test
+    void toJsonDividesByUnit() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2000);
+        histogram.record(4000);
+
+        JsonObject json = histogram.snapshot().toJson(1000.0);
+        assertEquals(2, json.get("count").getAsLong());
+        assertEquals(3.0, json.get("mean").getAsDouble());
+        assertEquals(4.0, json.get("max").getAsDouble());
+        assertWithin(2000, (long) (json.get("p50").getAsDouble() * 1000), 0.03);
+        assertWithin(4000, (long) (json.get("p99").getAsDouble() * 1000), 0.03);
+    }
+}
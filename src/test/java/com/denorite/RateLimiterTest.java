@@ -0,0 +1,116 @@
+package com.denorite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final UUID steve = UUID.randomUUID();
+    private final UUID alex = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(RateLimiter.configure(10, 5, List.of("player_attack_block", "player_use_item")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RateLimiter.configure(0, 0, List.of());
+    }
+
+    private boolean acquire(UUID player, EventType type, long now) {
+        return RateLimiter.tryAcquire(player, () -> "Steve", type, now);
+    }
+
+    @Test
+    void burstPassesThenEventsAreSuppressed() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0), "event " + i);
+        }
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+        assertEquals(2, RateLimiter.suppressedCount(steve, EventType.PLAYER_ATTACK_BLOCK));
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRate() {
+        for (int i = 0; i < 5; i++) {
+            acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0);
+        }
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+
+        // 10 per second is one token every 100ms
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, SECOND / 20));
+        assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, SECOND / 10));
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, SECOND / 10));
+        assertEquals(3, RateLimiter.suppressedCount(steve, EventType.PLAYER_ATTACK_BLOCK));
+    }
+
+    @Test
+    void refillIsCappedAtTheBurst() {
+        acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0);
+        long later = 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, later), "event " + i);
+        }
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, later));
+    }
+
+    @Test
+    void bucketsArePerPlayerAndPerEventType() {
+        for (int i = 0; i < 5; i++) {
+            acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0);
+        }
+        assertFalse(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+        assertTrue(acquire(steve, EventType.PLAYER_USE_ITEM, 0));
+        assertTrue(acquire(alex, EventType.PLAYER_ATTACK_BLOCK, 0));
+        assertEquals(0, RateLimiter.suppressedCount(steve, EventType.PLAYER_USE_ITEM));
+        assertEquals(0, RateLimiter.suppressedCount(alex, EventType.PLAYER_ATTACK_BLOCK));
+    }
+
+    @Test
+    void unlimitedTypesAlwaysPass() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(acquire(steve, EventType.PLAYER_USE_BLOCK, 0));
+        }
+        assertEquals(0, RateLimiter.suppressedCount(steve, EventType.PLAYER_USE_BLOCK));
+    }
+
+    @Test
+    void disabledLimiterPassesEverything() {
+        assertFalse(RateLimiter.configure(0, 5, List.of("player_attack_block")));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+        }
+        assertEquals(0, RateLimiter.suppressedCount(steve, EventType.PLAYER_ATTACK_BLOCK));
+    }
+
+    @Test
+    void unknownEventTypesAreIgnored() {
+        assertTrue(RateLimiter.configure(1, 1, List.of("no_such_event", "player_use_item")));
+        assertTrue(acquire(steve, EventType.PLAYER_USE_ITEM, 0));
+        assertFalse(acquire(steve, EventType.PLAYER_USE_ITEM, 0));
+        assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+        assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+    }
+
+    @Test
+    void configureForgetsPreviousState() {
+        for (int i = 0; i < 6; i++) {
+            acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0);
+        }
+        assertEquals(1, RateLimiter.suppressedCount(steve, EventType.PLAYER_ATTACK_BLOCK));
+
+        RateLimiter.configure(10, 5, List.of("player_use_item"));
+        assertEquals(0, RateLimiter.suppressedCount(steve, EventType.PLAYER_ATTACK_BLOCK));
+        assertTrue(acquire(steve, EventType.PLAYER_ATTACK_BLOCK, 0));
+    }
+}
@@ -0,0 +1,95 @@
+package com.denorite;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReconnectPolicyTest {
+    private static final int SAMPLES = 2000;
+
+    @Test
+    void firstDelayIsJitteredUpToTheBaseDelay() {
+        ReconnectPolicy policy = new ReconnectPolicy(1000, 60_000);
+        long largest = 0;
+        long smallest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelayMs();
+            policy.connected();
+            assertTrue(delay >= 0 && delay <= 1000, "delay " + delay);
+            largest = Math.max(largest, delay);
+            smallest = Math.min(smallest, delay);
+        }
+        assertTrue(largest > 900, "largest " + largest);
+        assertTrue(smallest < 100, "smallest " + smallest);
+    }
+
+    @Test
+    void delayCeilingDoublesWithEachFailureUpToTheCap() {
+        long[] ceilings = {100, 200, 400, 800, 1000, 1000, 1000};
+        for (int failures = 0; failures < ceilings.length; failures++) {
+            long largest = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                ReconnectPolicy sample = new ReconnectPolicy(100, 1000);
+                for (int f = 0; f < failures; f++) {
+                    sample.nextDelayMs();
+                }
+                long delay = sample.nextDelayMs();
+                assertTrue(delay >= 0 && delay <= ceilings[failures], "delay " + delay + " after " + failures + " failures");
+                largest = Math.max(largest, delay);
+            }
+            assertTrue(largest > ceilings[failures] * 0.9, "largest " + largest + " after " + failures + " failures");
+        }
+    }
+
+    @Test
+    void manyFailuresDoNotOverflow() {
+        ReconnectPolicy policy = new ReconnectPolicy(1000, 60_000);
+        for (int i = 0; i < 200; i++) {
+            long delay = policy.nextDelayMs();
+            assertTrue(delay >= 0 && delay <= 60_000, "delay " + delay + " after " + i + " failures");
+        }
+    }
+
+    @Test
+    void zeroBaseDelayReconnectsImmediately() {
+        ReconnectPolicy policy = new ReconnectPolicy(0, 0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, policy.nextDelayMs());
+        }
+    }
+
+    @Test
+    void connectedResetsTheBackoff() {
+        ReconnectPolicy policy = new ReconnectPolicy(100, 100_000);
+        for (int i = 0; i < 10; i++) {
+            policy.nextDelayMs();
+        }
+        policy.connected();
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(policy.nextDelayMs() <= 100);
+            policy.connected();
+        }
+    }
+
+    @Test
+    void disconnectIsClaimedOncePerAttempt() {
+        ReconnectPolicy policy = new ReconnectPolicy(100, 1000);
+        long attempt = policy.startAttempt();
+        assertTrue(policy.claimDisconnect(attempt));
+        assertFalse(policy.claimDisconnect(attempt));
+
+        long next = policy.startAttempt();
+        assertNotEquals(attempt, next);
+        assertTrue(policy.claimDisconnect(next));
+        assertFalse(policy.claimDisconnect(next));
+    }
+
+    @Test
+    void staleAttemptsCannotClaim() {
+        ReconnectPolicy policy = new ReconnectPolicy(100, 1000);
+        long stale = policy.startAttempt();
+        long current = policy.startAttempt();
+        assertFalse(policy.claimDisconnect(stale));
+        assertTrue(policy.claimDisconnect(current));
+    }
+}
@@ -0,0 +1,297 @@
+package com.denorite;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnixSocketTransportTest {
+    private static final int MAX_FRAME_SIZE = 1024;
+
+    @TempDir
+    Path dir;
+
+    private Path socketPath;
+    private ServerSocketChannel server;
+    private SocketChannel backend;
+    private WebSocket transport;
+    private final RecordingListener listener = new RecordingListener();
+
+    /**
+     * Records what the transport delivers, without asking for more messages on its own.
+     */
+    private static final class RecordingListener implements WebSocket.Listener {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            events.add("text:" + data);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            events.add("binary:" + StandardCharsets.UTF_8.decode(data));
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPing(WebSocket webSocket, ByteBuffer message) {
+            events.add("ping:" + StandardCharsets.UTF_8.decode(message));
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+            events.add("pong:" + StandardCharsets.UTF_8.decode(message));
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            events.add("close:" + statusCode + ":" + reason);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            events.add("error:" + error.getClass().getSimpleName());
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event delivered");
+            return event;
+        }
+
+        void assertNothingDelivered() throws InterruptedException {
+            assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private record Frame(int type, byte[] payload) {
+        String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        socketPath = dir.resolve("backend.sock");
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Authorization", "Bearer secret");
+        headers.put("X-Denorite-Protocol", "3");
+        var connecting = UnixSocketTransport.connect("unix:" + socketPath, headers, listener, MAX_FRAME_SIZE);
+        backend = server.accept();
+        transport = connecting.get(5, TimeUnit.SECONDS);
+
+        Frame headerFrame = readFrame();
+        assertEquals(0, headerFrame.type());
+        JsonObject expected = new JsonObject();
+        expected.addProperty("Authorization", "Bearer secret");
+        expected.addProperty("X-Denorite-Protocol", "3");
+        assertEquals(expected, JsonParser.parseString(headerFrame.text()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        transport.abort();
+        backend.close();
+        server.close();
+    }
+
+    private Frame readFrame() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(header);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(1));
+        readFully(payload);
+        return new Frame(header.get(0), payload.array());
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (backend.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private void writeFrame(int type, byte[] payload) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(5 + payload.length).put((byte) type).putInt(payload.length).put(payload).flip();
+        while (frame.hasRemaining()) {
+            backend.write(frame);
+        }
+    }
+
+    private void writeFrame(int type, String payload) throws IOException {
+        writeFrame(type, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void recognizesUnixUrls() {
+        assertTrue(UnixSocketTransport.isUnixUrl("unix:/run/denorite.sock"));
+        assertTrue(UnixSocketTransport.isUnixUrl("unix:///run/denorite.sock"));
+        assertFalse(UnixSocketTransport.isUnixUrl("ws://localhost:8082"));
+    }
+
+    @Test
+    void sendsLengthPrefixedFrames() throws Exception {
+        transport.sendText("h\u00e9llo", true).get(5, TimeUnit.SECONDS);
+        Frame text = readFrame();
+        assertEquals(1, text.type());
+        assertArrayEquals("h\u00e9llo".getBytes(StandardCharsets.UTF_8), text.payload());
+
+        transport.sendBinary(ByteBuffer.wrap(new byte[]{1, 2, 3}), true).get(5, TimeUnit.SECONDS);
+        Frame binary = readFrame();
+        assertEquals(2, binary.type());
+        assertArrayEquals(new byte[]{1, 2, 3}, binary.payload());
+
+        transport.sendPing(ByteBuffer.wrap(new byte[]{7})).get(5, TimeUnit.SECONDS);
+        Frame ping = readFrame();
+        assertEquals(9, ping.type());
+        assertArrayEquals(new byte[]{7}, ping.payload());
+    }
+
+    @Test
+    void rejectsPartialMessages() {
+        var sent = transport.sendText("part", false);
+        ExecutionException error = assertThrows(ExecutionException.class, sent::get);
+        assertTrue(error.getCause() instanceof UnsupportedOperationException);
+    }
+
+    @Test
+    void sendCloseWritesStatusAndReasonAndClosesOutput() throws Exception {
+        transport.sendClose(WebSocket.NORMAL_CLOSURE, "bye").get(5, TimeUnit.SECONDS);
+        Frame close = readFrame();
+        assertEquals(8, close.type());
+        ByteBuffer payload = ByteBuffer.wrap(close.payload());
+        assertEquals(WebSocket.NORMAL_CLOSURE, payload.getShort() & 0xffff);
+        assertEquals("bye", StandardCharsets.UTF_8.decode(payload).toString());
+
+        assertTrue(transport.isOutputClosed());
+        assertThrows(ExecutionException.class, () -> transport.sendText("late", true).get());
+    }
+
+    @Test
+    void deliversInboundMessagesOnlyOnDemand() throws Exception {
+        writeFrame(1, "first");
+        writeFrame(2, "second");
+        writeFrame(1, "third");
+        listener.assertNothingDelivered();
+
+        transport.request(1);
+        assertEquals("text:first", listener.next());
+        listener.assertNothingDelivered();
+
+        transport.request(2);
+        assertEquals("binary:second", listener.next());
+        assertEquals("text:third", listener.next());
+        listener.assertNothingDelivered();
+    }
+
+    @Test
+    void rejectsNonPositiveRequests() {
+        assertThrows(IllegalArgumentException.class, () -> transport.request(0));
+    }
+
+    @Test
+    void answersPingsWithoutDemand() throws Exception {
+        writeFrame(9, "beat");
+        Frame pong = readFrame();
+        assertEquals(10, pong.type());
+        assertEquals("beat", pong.text());
+
+        listener.assertNothingDelivered();
+        transport.request(1);
+        assertEquals("ping:beat", listener.next());
+    }
+
+    @Test
+    void deliversPongs() throws Exception {
+        transport.request(1);
+        writeFrame(10, "late");
+        assertEquals("pong:late", listener.next());
+    }
+
+    @Test
+    void skipsOversizedFrames() throws Exception {
+        transport.request(2);
+        writeFrame(1, "x".repeat(MAX_FRAME_SIZE + 1));
+        writeFrame(1, "small");
+        assertEquals("text:small", listener.next());
+        listener.assertNothingDelivered();
+    }
+
+    @Test
+    void closeFrameClosesTheConnection() throws Exception {
+        transport.request(1);
+        ByteBuffer payload = ByteBuffer.allocate(2 + 10).putShort((short) 1001)
+                .put("going away".getBytes(StandardCharsets.UTF_8));
+        writeFrame(8, payload.array());
+
+        assertEquals("close:1001:going away", listener.next());
+        assertTrue(transport.isInputClosed());
+        // The transport closes its end once the listener has seen the close
+        assertEquals(-1, backend.read(ByteBuffer.allocate(1)));
+        assertTrue(transport.isOutputClosed());
+        listener.assertNothingDelivered();
+    }
+
+    @Test
+    void backendDisconnectIsReportedAsAnError() throws Exception {
+        backend.close();
+        assertEquals("error:EOFException", listener.next());
+        assertTrue(transport.isInputClosed());
+    }
+
+    @Test
+    void abortIsNotReportedAsAnError() throws Exception {
+        transport.abort();
+        assertTrue(transport.isInputClosed());
+        assertTrue(transport.isOutputClosed());
+        listener.assertNothingDelivered();
+    }
+
+    @Test
+    void unknownFrameTypeIsAnError() throws Exception {
+        transport.request(1);
+        writeFrame(42, "?");
+        assertEquals("error:IOException", listener.next());
+    }
+
+    @Test
+    void connectFailsWithoutABackend() {
+        var connecting = UnixSocketTransport.connect("unix://" + dir.resolve("missing.sock"), Map.of(), new RecordingListener(), MAX_FRAME_SIZE);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> connecting.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IOException);
+    }
+}